@@ -0,0 +1,47 @@
+package desempenho;
+
+import infraestrutura.grafico.Animation;
+import java.awt.Color;
+
+/**
+ * Mede Animation.update() seguido de Animation.getImage() para várias
+ * animações, como acontece para cada sprite a cada quadro.
+ *
+ * @author David Buzatto
+ */
+public class AnimationUpdateBenchmark extends Benchmark {
+    
+    private Animation[] anims;
+    
+    
+    public int[] getMapWidths() {
+        // a largura do mapa não influencia as animações
+        return new int[] { 0 };
+    }
+    
+    
+    protected void setUp() {
+        
+        Animation host = SyntheticMap.createAnimation( 32, 32, Color.RED );
+        anims = new Animation[ spriteCount ];
+        for ( int i = 0; i < spriteCount; i++ ) {
+            anims[ i ] = ( Animation ) host.clone();
+        }
+        
+    }
+    
+    
+    public long operation() {
+        
+        long result = 0;
+        
+        for ( Animation anim : anims ) {
+            anim.update( 16 );
+            result += anim.getImage().hashCode();
+        }
+        
+        return result;
+        
+    }
+    
+}
@@ -0,0 +1,64 @@
+package desempenho;
+
+/**
+ * A classe Benchmark é a base dos benchmarks do jogo. Cada benchmark é
+ * configurado com uma largura de mapa (em tiles) e uma quantidade de sprites,
+ * e mede o tempo de uma operação executada repetidamente.
+ *
+ * <p>O valor retornado por operation() é consumido pelo BenchmarkRunner para
+ * que a máquina virtual não elimine o código medido.
+ *
+ * @author David Buzatto
+ */
+public abstract class Benchmark {
+    
+    protected int mapWidth;
+    protected int spriteCount;
+    
+    
+    /**
+     * Obtém o nome do benchmark.
+     */
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+    
+    
+    /**
+     * Obtém as larguras de mapa (em tiles) usadas por esse benchmark.
+     */
+    public int[] getMapWidths() {
+        return new int[] { 200, 2000, 20000 };
+    }
+    
+    
+    /**
+     * Obtém as quantidades de sprites usadas por esse benchmark.
+     */
+    public int[] getSpriteCounts() {
+        return new int[] { 10, 100, 1000 };
+    }
+    
+    
+    /**
+     * Configura os parâmetros e prepara o benchmark.
+     */
+    public void setUp( int mapWidth, int spriteCount ) {
+        this.mapWidth = mapWidth;
+        this.spriteCount = spriteCount;
+        setUp();
+    }
+    
+    
+    /**
+     * Prepara o benchmark para os parâmetros atuais.
+     */
+    protected abstract void setUp();
+    
+    
+    /**
+     * Executa uma vez a operação medida.
+     */
+    public abstract long operation();
+    
+}
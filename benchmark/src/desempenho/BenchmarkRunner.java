@@ -0,0 +1,149 @@
+package desempenho;
+
+import java.util.Locale;
+
+/**
+ * A classe BenchmarkRunner executa os benchmarks do jogo. Para cada
+ * combinação de parâmetros, executa iterações de aquecimento (para que o JIT
+ * compile o código medido) e depois iterações de medição, exibindo o tempo
+ * médio por operação e o desvio padrão entre as iterações.
+ *
+ * <p>Uso: java desempenho.BenchmarkRunner [nome do benchmark...]
+ *
+ * @author David Buzatto
+ */
+public class BenchmarkRunner {
+    
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    
+    // duração de cada iteração (nanosegundos)
+    private static final long ITERATION_TIME = 200000000L;
+    
+    // consome os resultados das operações
+    private static volatile long sink;
+    
+    
+    /**
+     * Obtém todos os benchmarks disponíveis.
+     */
+    public static Benchmark[] getBenchmarks() {
+        return new Benchmark[] {
+            new GameManagerUpdateBenchmark(),
+            new TileCollisionBenchmark(),
+            new SpriteCollisionBenchmark(),
+            new AnimationUpdateBenchmark(),
+            new CreatureObjectBenchmark(),
+            new CreatureStoreBenchmark(),
+            new MapReloadBenchmark(),
+            new LevelLoadBenchmark(),
+            new TextLevelLoadBenchmark(),
+            new TileMapRendererBenchmark()
+        };
+    }
+    
+    
+    /**
+     * Executa um benchmark com todas as combinações de parâmetros.
+     */
+    public void run( Benchmark benchmark ) {
+        
+        for ( int mapWidth : benchmark.getMapWidths() ) {
+            for ( int spriteCount : benchmark.getSpriteCounts() ) {
+                
+                benchmark.setUp( mapWidth, spriteCount );
+                
+                for ( int i = 0; i < WARMUP_ITERATIONS; i++ ) {
+                    iteration( benchmark );
+                }
+                
+                double[] results = new double[ MEASUREMENT_ITERATIONS ];
+                for ( int i = 0; i < MEASUREMENT_ITERATIONS; i++ ) {
+                    results[ i ] = iteration( benchmark );
+                }
+                
+                report( benchmark, mapWidth, spriteCount, results );
+                
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Executa uma iteração, retornando o tempo médio por operação em
+     * nanosegundos.
+     */
+    private double iteration( Benchmark benchmark ) {
+        
+        long operations = 0;
+        long result = 0;
+        long startTime = System.nanoTime();
+        long time;
+        
+        // executa as operações em lotes para não medir o relógio
+        do {
+            for ( int i = 0; i < 64; i++ ) {
+                result += benchmark.operation();
+            }
+            operations += 64;
+            time = System.nanoTime() - startTime;
+        } while ( time < ITERATION_TIME );
+        
+        sink += result;
+        return ( double ) time / operations;
+        
+    }
+    
+    
+    /**
+     * Exibe o resultado de uma combinação de parâmetros.
+     */
+    private void report( Benchmark benchmark, int mapWidth, int spriteCount,
+            double[] results ) {
+        
+        double mean = 0;
+        for ( double r : results ) {
+            mean += r;
+        }
+        mean /= results.length;
+        
+        double variance = 0;
+        for ( double r : results ) {
+            variance += ( r - mean ) * ( r - mean );
+        }
+        double deviation = Math.sqrt( variance / results.length );
+        
+        System.out.println( String.format( Locale.US,
+                "%-28s largura=%-6d sprites=%-6d %14.1f ns/op  +- %.1f",
+                benchmark.getName(), mapWidth, spriteCount,
+                mean, deviation ) );
+        
+    }
+    
+    
+    public static void main( String[] args ) {
+        
+        // os benchmarks desenham em imagens fora da tela
+        System.setProperty( "java.awt.headless", "true" );
+        
+        BenchmarkRunner runner = new BenchmarkRunner();
+        
+        for ( Benchmark benchmark : getBenchmarks() ) {
+            
+            boolean selected = args.length == 0;
+            for ( String name : args ) {
+                if ( benchmark.getName().equalsIgnoreCase( name ) ) {
+                    selected = true;
+                }
+            }
+            
+            if ( selected ) {
+                runner.run( benchmark );
+            }
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,109 @@
+package desempenho;
+
+import java.awt.Point;
+import jogo.GameManager;
+import jogo.sprites.Creature;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * Mede a gravidade, o movimento com colisão contra os tiles e a animação de
+ * muitas criaturas guardadas como objetos Creature, da mesma forma que
+ * GameManager.updateCreature(). Serve de comparação para o
+ * CreatureStoreBenchmark.
+ *
+ * @author David Buzatto
+ */
+public class CreatureObjectBenchmark extends Benchmark {
+    
+    private static final long ELAPSED_TIME = 16;
+    
+    private GameManager game;
+    private Creature[] creatures;
+    
+    
+    public int[] getMapWidths() {
+        return new int[] { 2000, 20000 };
+    }
+    
+    
+    public int[] getSpriteCounts() {
+        return new int[] { 1000, 10000, 50000 };
+    }
+    
+    
+    protected void setUp() {
+        
+        TileMap map = SyntheticMap.create( mapWidth, 0 );
+        game = new GameManager();
+        game.initHeadless();
+        game.setMap( map );
+        
+        Creature host = SyntheticMap.createGoomba();
+        int mapPixels = TileMapRenderer.tilesToPixels( mapWidth - 2 );
+        creatures = new Creature[ spriteCount ];
+        for ( int i = 0; i < spriteCount; i++ ) {
+            creatures[ i ] = ( Creature ) host.clone();
+            creatures[ i ].setX( TileMapRenderer.tilesToPixels( 1 ) +
+                    ( float ) i * mapPixels / spriteCount );
+            creatures[ i ].setY( 0 );
+            creatures[ i ].wakeUp();
+        }
+        
+    }
+    
+    
+    public long operation() {
+        
+        long result = 0;
+        
+        for ( Creature creature : creatures ) {
+            
+            // gravidade
+            creature.setVelocityY( creature.getVelocityY() +
+                    GameManager.GRAVITY * ELAPSED_TIME );
+            
+            // movimento horizontal
+            float dx = creature.getVelocityX();
+            float newX = creature.getX() + dx * ELAPSED_TIME;
+            Point tile = game.getTileCollision( creature, newX, 
+                    creature.getY() );
+            if ( tile == null ) {
+                creature.setX( newX );
+            } else {
+                if ( dx > 0 ) {
+                    creature.setX( TileMapRenderer.tilesToPixels( tile.x ) -
+                            creature.getWidth() );
+                } else if ( dx < 0 ) {
+                    creature.setX( TileMapRenderer.tilesToPixels( tile.x + 1 ) );
+                }
+                creature.collideHorizontal();
+            }
+            
+            // movimento vertical
+            float dy = creature.getVelocityY();
+            float newY = creature.getY() + dy * ELAPSED_TIME;
+            tile = game.getTileCollision( creature, creature.getX(), newY );
+            if ( tile == null ) {
+                creature.setY( newY );
+            } else {
+                if ( dy > 0 ) {
+                    creature.setY( TileMapRenderer.tilesToPixels( tile.y ) -
+                            creature.getHeight() );
+                } else if ( dy < 0 ) {
+                    creature.setY( TileMapRenderer.tilesToPixels( tile.y + 1 ) );
+                }
+                creature.collideVertical();
+            }
+            
+            // animação
+            creature.update( ELAPSED_TIME );
+            result += ( long ) creature.getX();
+            
+        }
+        
+        return result;
+        
+    }
+    
+}
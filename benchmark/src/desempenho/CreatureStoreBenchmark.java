@@ -0,0 +1,52 @@
+package desempenho;
+
+import jogo.CreatureStore;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * Mede CreatureStore.update() com muitas criaturas guardadas em vetores
+ * paralelos. Deve ser comparado com o CreatureObjectBenchmark, que faz o
+ * mesmo trabalho com objetos Creature.
+ *
+ * @author David Buzatto
+ */
+public class CreatureStoreBenchmark extends Benchmark {
+    
+    private static final long ELAPSED_TIME = 16;
+    
+    private TileMap map;
+    private CreatureStore store;
+    
+    
+    public int[] getMapWidths() {
+        return new int[] { 2000, 20000 };
+    }
+    
+    
+    public int[] getSpriteCounts() {
+        return new int[] { 1000, 10000, 50000 };
+    }
+    
+    
+    protected void setUp() {
+        
+        map = SyntheticMap.create( mapWidth, 0 );
+        
+        store = new CreatureStore( spriteCount );
+        int kind = store.addKind( SyntheticMap.createGoomba() );
+        int mapPixels = TileMapRenderer.tilesToPixels( mapWidth - 2 );
+        for ( int i = 0; i < spriteCount; i++ ) {
+            store.add( kind, TileMapRenderer.tilesToPixels( 1 ) +
+                    ( float ) i * mapPixels / spriteCount, 0 );
+        }
+        
+    }
+    
+    
+    public long operation() {
+        store.update( ELAPSED_TIME, map );
+        return ( long ) store.getX( store.size() - 1 );
+    }
+    
+}
@@ -0,0 +1,45 @@
+package desempenho;
+
+import jogo.GameManager;
+import jogo.sprites.Creature;
+
+/**
+ * Mede GameManager.update() em um mapa sintético, sem tela.
+ *
+ * @author David Buzatto
+ */
+public class GameManagerUpdateBenchmark extends Benchmark {
+    
+    private static final long ELAPSED_TIME = 16;
+    
+    private GameManager game;
+    
+    
+    protected void setUp() {
+        game = new GameManager();
+        game.initHeadless();
+        game.setMap( SyntheticMap.create( mapWidth, spriteCount ) );
+    }
+    
+    
+    public long operation() {
+        
+        // recria o mapa se o jogo terminou
+        if ( game.isGameOver() ) {
+            setUp();
+        }
+        
+        // revive o jogador no lugar, evitando que o jogo recarregue uma fase
+        // real quando ele morre para as criaturas
+        Creature player = ( Creature ) game.getMap().getPlayer();
+        if ( !player.isAlive() ) {
+            player.setState( Creature.STATE_NORMAL );
+            player.setVelocityY( 0 );
+        }
+        
+        game.update( ELAPSED_TIME );
+        return Math.round( player.getX() );
+        
+    }
+    
+}
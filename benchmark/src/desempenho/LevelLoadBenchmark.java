@@ -0,0 +1,73 @@
+package desempenho;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import jogo.tile.ChunkContent;
+import jogo.tile.CompiledLevel;
+import jogo.tile.LevelData;
+import jogo.tile.LevelFile;
+
+/**
+ * Mede a leitura de uma fase sintética no formato binário compilado 
+ * (LevelFile.openBinary()), a partir de um array em memória: a abertura e 
+ * a leitura de todos os chunks, um por vez, como o jogo faz ao percorrer a
+ * fase inteira.
+ *
+ * @author David Buzatto
+ */
+public class LevelLoadBenchmark extends Benchmark {
+    
+    protected String text;
+    protected byte[] binary;
+    
+    
+    protected void setUp() {
+        
+        text = SyntheticMap.createText( mapWidth, spriteCount );
+        
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            LevelFile.writeBinary( readText(), out );
+            binary = out.toByteArray();
+        } catch ( IOException ex ) {
+            throw new RuntimeException( ex );
+        }
+        
+    }
+    
+    
+    public long operation() {
+        try {
+            CompiledLevel level = LevelFile.openBinary( 
+                    new CompiledLevel.Source() {
+                public InputStream open() {
+                    return new ByteArrayInputStream( binary );
+                }
+            });
+            ChunkContent content = new ChunkContent();
+            long entityCount = 0;
+            for ( int i = 0; i < level.getChunkCount(); i++ ) {
+                level.readChunk( i, content );
+                entityCount += content.getEntityCount();
+            }
+            level.close();
+            return entityCount;
+        } catch ( IOException ex ) {
+            throw new RuntimeException( ex );
+        }
+    }
+    
+    
+    /**
+     * Lê a fase no formato texto.
+     */
+    protected LevelData readText() throws IOException {
+        return LevelFile.readText( new BufferedReader( 
+                new StringReader( text ) ), 'Z' );
+    }
+    
+}
@@ -0,0 +1,41 @@
+package desempenho;
+
+import infraestrutura.util.ResourceManager;
+import jogo.tile.TileMap;
+
+/**
+ * Mede ResourceManager.reloadMap(), executado quando o jogador morre, 
+ * usando a primeira fase do jogo. A largura do mapa e a quantidade de 
+ * sprites são as da fase, por isso os parâmetros não são usados.
+ *
+ * @author David Buzatto
+ */
+public class MapReloadBenchmark extends Benchmark {
+    
+    private ResourceManager resourceManager;
+    private TileMap map;
+    
+    
+    public int[] getMapWidths() {
+        return new int[] { 0 };
+    }
+    
+    
+    public int[] getSpriteCounts() {
+        return new int[] { 0 };
+    }
+    
+    
+    protected void setUp() {
+        resourceManager = new ResourceManager( null, 'Z' );
+        map = resourceManager.loadNextMap();
+    }
+    
+    
+    public long operation() {
+        resourceManager.releaseMap( map );
+        map = resourceManager.reloadMap();
+        return map.getSpriteCount();
+    }
+    
+}
@@ -0,0 +1,55 @@
+package desempenho;
+
+import infraestrutura.grafico.Sprite;
+import jogo.GameManager;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * Mede GameManager.getSpriteCollision() para o jogador em posições
+ * espalhadas pelo mapa.
+ *
+ * @author David Buzatto
+ */
+public class SpriteCollisionBenchmark extends Benchmark {
+    
+    private static final int POSITIONS = 64;
+    
+    private GameManager game;
+    private Sprite player;
+    private float[] positions;
+    
+    
+    protected void setUp() {
+        
+        TileMap map = SyntheticMap.create( mapWidth, spriteCount );
+        game = new GameManager();
+        game.initHeadless();
+        game.setMap( map );
+        player = map.getPlayer();
+        
+        positions = new float[ POSITIONS ];
+        for ( int i = 0; i < POSITIONS; i++ ) {
+            positions[ i ] = TileMapRenderer.tilesToPixels(
+                    i * mapWidth / POSITIONS );
+        }
+        
+    }
+    
+    
+    public long operation() {
+        
+        long collisions = 0;
+        
+        for ( float x : positions ) {
+            player.setX( x );
+            if ( game.getSpriteCollision( player ) != null ) {
+                collisions++;
+            }
+        }
+        
+        return collisions;
+        
+    }
+    
+}
@@ -0,0 +1,200 @@
+package desempenho;
+
+import infraestrutura.grafico.Animation;
+import infraestrutura.grafico.Sprite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+import jogo.sprites.Goomba;
+import jogo.sprites.Player;
+import jogo.sprites.PowerUp;
+import jogo.tile.MapSprite;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * A classe SyntheticMap cria mapas e sprites para os benchmarks sem carregar
+ * os recursos do jogo. Os mapas têm chão, blocos e plataformas espalhados e
+ * as sprites (Goombas e moedas) são distribuídas uniformemente pelo mapa.
+ *
+ * @author David Buzatto
+ */
+public class SyntheticMap {
+    
+    public static final int MAP_HEIGHT = 15;
+    
+    // semente fixa para que os mapas sejam sempre iguais
+    private static final long SEED = 42;
+    
+    
+    /**
+     * Cria um mapa com a largura (em tiles) e a quantidade de sprites
+     * especificadas.
+     */
+    public static TileMap create( int width, int spriteCount ) {
+        
+        Random random = new Random( SEED );
+        TileMap map = new TileMap( width, MAP_HEIGHT );
+        
+        Image[] tiles = {
+            createImage( 32, 32, Color.ORANGE ),
+            createImage( 32, 32, Color.GREEN ),
+            createImage( 32, 32, Color.GRAY )
+        };
+        
+        for ( int x = 0; x < width; x++ ) {
+            
+            // chão
+            map.setTile( x, MAP_HEIGHT - 1, tiles[ 0 ] );
+            map.setTile( x, MAP_HEIGHT - 2, tiles[ 1 ] );
+            
+            // blocos e plataformas
+            if ( x > 8 && random.nextInt( 12 ) == 0 ) {
+                map.setTile( x, MAP_HEIGHT - 3, tiles[ 2 ] );
+            }
+            if ( random.nextInt( 6 ) == 0 ) {
+                map.setTile( x, MAP_HEIGHT - 6, tiles[ 2 ] );
+            }
+            
+        }
+        
+        // paredes nas bordas
+        for ( int y = 0; y < MAP_HEIGHT; y++ ) {
+            map.setTile( 0, y, tiles[ 2 ] );
+            map.setTile( width - 1, y, tiles[ 2 ] );
+        }
+        
+        MapSprite goomba = createGoomba();
+        MapSprite coin = createCoin();
+        
+        for ( int i = 0; i < spriteCount; i++ ) {
+            
+            MapSprite sprite = 
+                    ( MapSprite ) ( i % 2 == 0 ? goomba : coin ).clone();
+            int tileX = 2 + ( int ) ( ( long ) i * ( width - 4 ) / spriteCount );
+            sprite.setX( TileMapRenderer.tilesToPixels( tileX ) );
+            sprite.setY( TileMapRenderer.tilesToPixels( MAP_HEIGHT - 2 ) -
+                    sprite.getHeight() );
+            sprite.savePosition();
+            map.addSprite( sprite );
+            
+        }
+        
+        Sprite player = createPlayer();
+        player.setX( TileMapRenderer.tilesToPixels( 3 ) );
+        player.setY( TileMapRenderer.tilesToPixels( MAP_HEIGHT - 2 ) -
+                player.getHeight() );
+        player.savePosition();
+        map.setPlayer( player );
+        
+        return map;
+        
+    }
+    
+    
+    /**
+     * Cria o texto de um mapa, no formato dos arquivos de mapa do jogo, com a
+     * mesma disposição de pedaços e sprites dos mapas criados por create().
+     */
+    public static String createText( int width, int spriteCount ) {
+        
+        Random random = new Random( SEED );
+        char[][] cells = new char[ MAP_HEIGHT ][ width ];
+        for ( char[] line : cells ) {
+            Arrays.fill( line, ' ' );
+        }
+        
+        for ( int x = 0; x < width; x++ ) {
+            cells[ MAP_HEIGHT - 1 ][ x ] = 'A';
+            cells[ MAP_HEIGHT - 2 ][ x ] = 'B';
+            if ( x > 8 && random.nextInt( 12 ) == 0 ) {
+                cells[ MAP_HEIGHT - 3 ][ x ] = 'C';
+            }
+            if ( random.nextInt( 6 ) == 0 ) {
+                cells[ MAP_HEIGHT - 6 ][ x ] = 'C';
+            }
+        }
+        
+        for ( int y = 0; y < MAP_HEIGHT; y++ ) {
+            cells[ y ][ 0 ] = 'C';
+            cells[ y ][ width - 1 ] = 'C';
+        }
+        
+        for ( int i = 0; i < spriteCount; i++ ) {
+            int tileX = 2 + ( int ) ( ( long ) i * ( width - 4 ) / spriteCount );
+            cells[ MAP_HEIGHT - 3 ][ tileX ] = i % 2 == 0 ? '1' : 'o';
+        }
+        
+        StringBuilder text = new StringBuilder( "# mapa sintético\n" );
+        for ( char[] line : cells ) {
+            text.append( line ).append( '\n' );
+        }
+        
+        return text.toString();
+        
+    }
+    
+    
+    /**
+     * Cria uma animação de dois quadros com a cor e o tamanho especificados.
+     */
+    public static Animation createAnimation( int width, int height,
+            Color color ) {
+        Animation anim = new Animation();
+        anim.addFrame( createImage( width, height, color ), 200 );
+        anim.addFrame( createImage( width, height, color.darker() ), 200 );
+        return anim;
+    }
+    
+    
+    /**
+     * Cria um Goomba.
+     */
+    public static Goomba createGoomba() {
+        return new Goomba(
+                createAnimation( 32, 32, Color.RED ),
+                createAnimation( 32, 32, Color.RED ),
+                createAnimation( 32, 16, Color.RED ),
+                createAnimation( 32, 16, Color.RED ) );
+    }
+    
+    
+    /**
+     * Cria uma moeda.
+     */
+    public static PowerUp createCoin() {
+        return new PowerUp.Coin( createAnimation( 16, 28, Color.YELLOW ) );
+    }
+    
+    
+    /**
+     * Cria o jogador.
+     */
+    public static Player createPlayer() {
+        Animation[] anims = new Animation[ 10 ];
+        for ( int i = 0; i < anims.length; i++ ) {
+            anims[ i ] = createAnimation( 28, 40, Color.BLUE );
+        }
+        return new Player( anims[ 0 ], anims[ 1 ], anims[ 2 ], anims[ 3 ],
+                anims[ 4 ], anims[ 5 ], anims[ 6 ], anims[ 7 ],
+                anims[ 8 ], anims[ 9 ] );
+    }
+    
+    
+    /**
+     * Cria uma imagem preenchida com a cor especificada.
+     */
+    private static Image createImage( int width, int height, Color color ) {
+        BufferedImage image = new BufferedImage( width, height,
+                BufferedImage.TYPE_INT_ARGB );
+        Graphics2D g = image.createGraphics();
+        g.setColor( color );
+        g.fillRect( 0, 0, width, height );
+        g.dispose();
+        return image;
+    }
+    
+}
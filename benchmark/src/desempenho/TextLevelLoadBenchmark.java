@@ -0,0 +1,21 @@
+package desempenho;
+
+import java.io.IOException;
+
+/**
+ * Mede a leitura da mesma fase sintética do LevelLoadBenchmark no formato
+ * texto (LevelFile.readText()), para comparação.
+ *
+ * @author David Buzatto
+ */
+public class TextLevelLoadBenchmark extends LevelLoadBenchmark {
+    
+    public long operation() {
+        try {
+            return readText().getEntityCount();
+        } catch ( IOException ex ) {
+            throw new RuntimeException( ex );
+        }
+    }
+    
+}
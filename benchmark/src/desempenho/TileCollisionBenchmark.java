@@ -0,0 +1,59 @@
+package desempenho;
+
+import infraestrutura.grafico.Sprite;
+import java.awt.Point;
+import jogo.GameManager;
+import jogo.tile.TileMap;
+
+/**
+ * Mede GameManager.getTileCollision() para um deslocamento horizontal e um
+ * vertical de todas as sprites do mapa.
+ *
+ * @author David Buzatto
+ */
+public class TileCollisionBenchmark extends Benchmark {
+    
+    private GameManager game;
+    private Sprite[] sprites;
+    
+    
+    protected void setUp() {
+        
+        TileMap map = SyntheticMap.create( mapWidth, spriteCount );
+        game = new GameManager();
+        game.initHeadless();
+        game.setMap( map );
+        
+        sprites = new Sprite[ map.getSpriteCount() ];
+        for ( int i = 0; i < sprites.length; i++ ) {
+            sprites[ i ] = map.getSprite( i );
+        }
+        
+    }
+    
+    
+    public long operation() {
+        
+        long collisions = 0;
+        
+        for ( Sprite sprite : sprites ) {
+            
+            Point tile = game.getTileCollision( sprite,
+                    sprite.getX() + 3, sprite.getY() );
+            if ( tile != null ) {
+                collisions++;
+            }
+            
+            tile = game.getTileCollision( sprite,
+                    sprite.getX(), sprite.getY() + 3 );
+            if ( tile != null ) {
+                collisions++;
+            }
+            
+        }
+        
+        return collisions;
+        
+    }
+    
+}
@@ -0,0 +1,53 @@
+package desempenho;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * Mede TileMapRenderer.draw() desenhando em uma imagem fora da tela de
+ * 800x600, com a câmera percorrendo o mapa.
+ *
+ * @author David Buzatto
+ */
+public class TileMapRendererBenchmark extends Benchmark {
+    
+    private static final int SCREEN_WIDTH = 800;
+    private static final int SCREEN_HEIGHT = 600;
+    
+    private TileMap map;
+    private TileMapRenderer renderer;
+    private BufferedImage screen;
+    private Graphics2D g;
+    private int frame;
+    
+    
+    protected void setUp() {
+        
+        map = SyntheticMap.create( mapWidth, spriteCount );
+        renderer = new TileMapRenderer();
+        screen = new BufferedImage( SCREEN_WIDTH, SCREEN_HEIGHT,
+                BufferedImage.TYPE_INT_RGB );
+        if ( g != null ) {
+            g.dispose();
+        }
+        g = screen.createGraphics();
+        frame = 0;
+        
+    }
+    
+    
+    public long operation() {
+        
+        // movimenta a câmera, voltando ao início no fim do mapa
+        int mapPixels = TileMapRenderer.tilesToPixels( mapWidth );
+        map.getPlayer().setX( ( frame++ * 8 ) % mapPixels );
+        map.getPlayer().savePosition();
+        
+        renderer.draw( g, map, SCREEN_WIDTH, SCREEN_HEIGHT );
+        return screen.getRGB( SCREEN_WIDTH / 2, SCREEN_HEIGHT / 2 );
+        
+    }
+    
+}
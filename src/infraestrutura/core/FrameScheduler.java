@@ -0,0 +1,87 @@
+package infraestrutura.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A classe FrameScheduler controla o ritmo de quadros do game loop, limitando
+ * a quantidade de quadros por segundo.
+ *
+ * <p>A espera é híbrida: a maior parte do tempo a thread é estacionada com
+ * LockSupport.parkNanos(), liberando o processador, e o último pedaço (menor
+ * que SPIN_THRESHOLD) é aguardado em espera ocupada, pois o tempo que o
+ * sistema operacional leva para acordar a thread não é preciso o suficiente
+ * para isso.
+ *
+ * @author David Buzatto
+ */
+public class FrameScheduler {
+    
+    // tempo final de espera que é feito em espera ocupada (nanosegundos)
+    private static final long SPIN_THRESHOLD = 1000000L;
+    
+    private long framePeriod;
+    private long nextFrameTime;
+    
+    
+    /**
+     * Cria um novo FrameScheduler para a quantidade de quadros por segundo
+     * especificada. Uma quantidade menor ou igual a zero não limita os quadros.
+     */
+    public FrameScheduler( int frameRate ) {
+        setFrameRate( frameRate );
+    }
+    
+    
+    /**
+     * Configura a quantidade de quadros por segundo. Uma quantidade menor ou
+     * igual a zero não limita os quadros.
+     */
+    public void setFrameRate( int frameRate ) {
+        framePeriod = frameRate > 0 ? 1000000000L / frameRate : 0;
+        nextFrameTime = System.nanoTime() + framePeriod;
+    }
+    
+    
+    /**
+     * Obtém a duração de um quadro em nanosegundos, ou zero se os quadros não
+     * são limitados.
+     */
+    public long getFramePeriod() {
+        return framePeriod;
+    }
+    
+    
+    /**
+     * Aguarda até o momento de iniciar o próximo quadro.
+     */
+    public void waitForNextFrame() {
+        
+        if ( framePeriod == 0 ) {
+            return;
+        }
+        
+        long remaining = nextFrameTime - System.nanoTime();
+        
+        // dorme enquanto estiver longe do próximo quadro
+        while ( remaining > SPIN_THRESHOLD ) {
+            LockSupport.parkNanos( remaining - SPIN_THRESHOLD );
+            remaining = nextFrameTime - System.nanoTime();
+        }
+        
+        // espera ocupada pelo restante do tempo
+        while ( remaining > 0 ) {
+            remaining = nextFrameTime - System.nanoTime();
+        }
+        
+        nextFrameTime += framePeriod;
+        
+        // se ficou mais de um quadro atrasado, não tenta recuperar o tempo
+        // perdido desenhando quadros sem espera
+        long now = System.nanoTime();
+        if ( now - nextFrameTime > framePeriod ) {
+            nextFrameTime = now + framePeriod;
+        }
+        
+    }
+    
+}
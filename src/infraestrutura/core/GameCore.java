@@ -1,8 +1,8 @@
 package infraestrutura.core;
 
 import java.awt.*;
-import javax.swing.*;
 import infraestrutura.grafico.*;
+import infraestrutura.util.AssetLoader;
 
 /**
  * Classe abstrata utilizada como base do jogo. As subclasses devem implementar
@@ -14,6 +14,19 @@ public abstract class GameCore {
     
     protected static final int FONT_SIZE = 24;
     
+    /**
+     * Taxa de quadros que usa a taxa de atualização do modo de visualização.
+     */
+    public static final int FRAME_RATE_DISPLAY = -1;
+    
+    /**
+     * Taxa de quadros que não limita a quantidade de quadros por segundo.
+     */
+    public static final int FRAME_RATE_UNLIMITED = 0;
+    
+    // taxa de quadros usada quando a taxa do monitor não é conhecida
+    private static final int DEFAULT_FRAME_RATE = 60;
+    
     // modos de visualização
     private static final DisplayMode POSSIBLE_MODES[] = {
         new DisplayMode( 800, 600, 16, 0 ),
@@ -30,6 +43,18 @@ public abstract class GameCore {
     private boolean isRunning;
     protected ScreenManager screen;
     
+    // converte as imagens carregadas para o formato da tela
+    private ImageConverter imageConverter;
+    
+    // configuração do passo fixo de simulação
+    private boolean fixedTimeStep;
+    private int updateRate = 60;
+    private int maxUpdatesPerFrame = 5;
+    
+    // controle da taxa de quadros
+    private int frameRate = FRAME_RATE_DISPLAY;
+    private FrameScheduler frameScheduler;
+    
     /**
      * Sinaliza ao loop do jogo que é hora de terminar.
      */
@@ -90,15 +115,31 @@ public abstract class GameCore {
         window.setBackground( Color.BLUE );
         window.setForeground( Color.WHITE );
         
+        imageConverter = new ImageConverter( 
+                window.getGraphicsConfiguration() );
+        
         isRunning = true;
     }
     
     
     /**
-     * Carrega uma imagem.
+     * Carrega uma imagem, convertendo-a para o formato da tela depois que o
+     * jogo foi iniciado.
      */
     public Image loadImage( String name ) {
-        return new ImageIcon( getClass().getResource( "/recursos/imagens/" + name ) ).getImage();
+        Image image = AssetLoader.loadImage( 
+                getClass().getResource( "/recursos/imagens/" + name ) );
+        return imageConverter == null ? 
+                image : imageConverter.convert( name, image );
+    }
+    
+    
+    /**
+     * Obtém o ImageConverter usado para converter as imagens carregadas, ou
+     * null se o jogo ainda não foi iniciado.
+     */
+    public ImageConverter getImageConverter() {
+        return imageConverter;
     }
     
     
@@ -106,6 +147,20 @@ public abstract class GameCore {
      * Executa o game loop até que stop() seja chamado.
      */
     public void gameLoop() {
+        frameScheduler = new FrameScheduler( getEffectiveFrameRate() );
+        if ( isFixedTimeStep() ) {
+            fixedTimeStepLoop();
+        } else {
+            variableTimeStepLoop();
+        }
+    }
+    
+    
+    /**
+     * Game loop em que update() recebe o tempo real decorrido entre um
+     * quadro e outro.
+     */
+    private void variableTimeStepLoop() {
         long startTime = System.currentTimeMillis();
         long currTime = startTime;
         
@@ -118,20 +173,180 @@ public abstract class GameCore {
             update( elapsedTime );
             
             // desenha
-            Graphics2D g = screen.getGraphics();
-            draw( g );
-            g.dispose();
-            screen.update();
+            render( 1 );
+            
+            // aguarda o próximo quadro
+            frameScheduler.waitForNextFrame();
+        }
+    }
+    
+    
+    /**
+     * Game loop com passo fixo de simulação. O tempo real é acumulado e
+     * update() é chamado em passos de mesma duração (1 / updateRate segundos),
+     * fazendo com que a física não dependa da taxa de quadros. Para evitar que
+     * uma parada longa faça o jogo tentar "alcançar" o tempo perdido para
+     * sempre, no máximo maxUpdatesPerFrame passos são executados por quadro e
+     * o restante é descartado. A fração do passo que sobra no acumulador é
+     * passada para draw() para que as posições sejam interpoladas.
+     */
+    private void fixedTimeStepLoop() {
+        long stepNanos = 1000000000L / updateRate;
+        long previousTime = System.nanoTime();
+        long accumulator = 0;
+        
+        // quantidade de passos simulados, usada para distribuir os
+        // milissegundos entre os passos sem acumular erro de arredondamento
+        long steps = 0;
+        
+        while ( isRunning ) {
+            long currTime = System.nanoTime();
+            accumulator += currTime - previousTime;
+            previousTime = currTime;
             
-            // não forme, executando da forma mais rápida possível
-            /*try {
-                Thread.sleep(20);
+            // atualiza
+            int updates = 0;
+            while ( accumulator >= stepNanos && updates < maxUpdatesPerFrame ) {
+                long elapsedTime = ( steps + 1 ) * 1000 / updateRate -
+                        steps * 1000 / updateRate;
+                update( elapsedTime );
+                steps++;
+                accumulator -= stepNanos;
+                updates++;
             }
-            catch (InterruptedException ex) { }*/
+            
+            // descarta o atraso que não pôde ser recuperado
+            if ( accumulator >= stepNanos ) {
+                accumulator %= stepNanos;
+            }
+            
+            // desenha
+            render( ( float ) accumulator / stepNanos );
+            
+            // aguarda o próximo quadro
+            frameScheduler.waitForNextFrame();
         }
     }
     
     
+    /**
+     * Desenha um quadro e o exibe na tela.
+     */
+    private void render( float alpha ) {
+        Graphics2D g = screen.getGraphics();
+        draw( g, alpha );
+        g.dispose();
+        screen.update();
+    }
+    
+    
+    /**
+     * Obtém a taxa de quadros configurada, que pode ser FRAME_RATE_DISPLAY, 
+     * FRAME_RATE_UNLIMITED ou uma quantidade de quadros por segundo.
+     */
+    public int getFrameRate() {
+        return frameRate;
+    }
+    
+    
+    /**
+     * Configura a taxa de quadros como FRAME_RATE_DISPLAY, 
+     * FRAME_RATE_UNLIMITED ou uma quantidade de quadros por segundo.
+     */
+    public void setFrameRate( int frameRate ) {
+        if ( frameRate < FRAME_RATE_DISPLAY ) {
+            throw new IllegalArgumentException(
+                    "frameRate inválido: " + frameRate );
+        }
+        this.frameRate = frameRate;
+        if ( frameScheduler != null ) {
+            frameScheduler.setFrameRate( getEffectiveFrameRate() );
+        }
+    }
+    
+    
+    /**
+     * Obtém a quantidade de quadros por segundo que será usada, resolvendo
+     * FRAME_RATE_DISPLAY para a taxa de atualização do monitor.
+     */
+    public int getEffectiveFrameRate() {
+        
+        if ( frameRate != FRAME_RATE_DISPLAY ) {
+            return frameRate;
+        }
+        
+        DisplayMode displayMode = screen.getCurrentDisplayMode();
+        if ( displayMode != null && displayMode.getRefreshRate() != 
+                DisplayMode.REFRESH_RATE_UNKNOWN ) {
+            return displayMode.getRefreshRate();
+        }
+        
+        return DEFAULT_FRAME_RATE;
+        
+    }
+    
+    
+    /**
+     * Verifica se o game loop usa passo fixo de simulação.
+     */
+    public boolean isFixedTimeStep() {
+        return fixedTimeStep;
+    }
+    
+    
+    /**
+     * Liga/desliga o passo fixo de simulação. Deve ser configurado antes de
+     * gameLoop() ser chamado.
+     */
+    public void setFixedTimeStep( boolean fixedTimeStep ) {
+        this.fixedTimeStep = fixedTimeStep;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de atualizações por segundo no modo de passo fixo.
+     */
+    public int getUpdateRate() {
+        return updateRate;
+    }
+    
+    
+    /**
+     * Configura a quantidade de atualizações por segundo no modo de passo 
+     * fixo.
+     */
+    public void setUpdateRate( int updateRate ) {
+        if ( updateRate <= 0 ) {
+            throw new IllegalArgumentException(
+                    "updateRate deve ser positivo: " + updateRate );
+        }
+        this.updateRate = updateRate;
+    }
+    
+    
+    /**
+     * Obtém a quantidade máxima de atualizações executadas por quadro no
+     * modo de passo fixo.
+     */
+    public int getMaxUpdatesPerFrame() {
+        return maxUpdatesPerFrame;
+    }
+    
+    
+    /**
+     * Configura a quantidade máxima de atualizações executadas por quadro
+     * no modo de passo fixo.
+     */
+    public void setMaxUpdatesPerFrame( int maxUpdatesPerFrame ) {
+        if ( maxUpdatesPerFrame <= 0 ) {
+            throw new IllegalArgumentException(
+                    "maxUpdatesPerFrame deve ser positivo: " + 
+                    maxUpdatesPerFrame );
+        }
+        this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+    }
+    
+    
     /**
      * Atualiza o estado do jogo/animação baseado da quantidade de tempo 
      * que passou.
@@ -146,4 +361,14 @@ public abstract class GameCore {
      */
     public abstract void draw(Graphics2D g);
     
+    
+    /**
+     * Desenha na tela usando o fator de interpolação alpha (entre 0 e 1),
+     * que indica quanto do próximo passo de simulação já se passou. Por 
+     * padrão, ignora alpha e chama draw(g).
+     */
+    public void draw( Graphics2D g, float alpha ) {
+        draw( g );
+    }
+    
 }
\ No newline at end of file
@@ -1,67 +1,92 @@
 package infraestrutura.grafico;
 
 import java.awt.*;
-import java.util.*;
 
 /**
  * A classe Animation gerencia uma série de imagens (quadros) e a quantidade
  * de tempo para exibir cada imagem.
  *
+ * <p>Os quadros ficam em um AnimationClip imutável, compartilhado entre as
+ * duplicatas da animação, e cada Animation guarda somente o estado da sua
+ * reprodução. Por isso nenhum método é sincronizado: uma Animation deve ser 
+ * usada somente pela thread do jogo.
+ *
  * @author David Buzatto
  */
 public class Animation {
     
-    private ArrayList< AnimFrame > frames;
+    private AnimationClip clip;
     private int currFrameIndex;
     private long animTime;
-    private long totalDuration;
     
     
     /**
      * Cria uma nova Animation vazia.
      */
     public Animation() {
-        this( new ArrayList< AnimFrame >(), 0 );
+        this( AnimationClip.EMPTY );
     }
     
     
     /**
-     * Cria uma animação com os frames e a duração total da exibição 
-     * da animação.
+     * Cria uma animação que reproduz o clip especificado.
      */
-    private Animation( ArrayList< AnimFrame > frames, long totalDuration ) {
-        this.frames = frames;
-        this.totalDuration = totalDuration;
+    public Animation( AnimationClip clip ) {
+        this.clip = clip;
         start();
     }
     
     
     /**
-     * Cria uma duplicata da animação. A lista de frames é compartilhada 
-     * entre duas animações, mas cada animação pode ser animada 
-     * independentemente.
+     * Cria uma duplicata da animação. O clip é compartilhado entre as duas
+     * animações, mas cada animação pode ser animada independentemente.
      */
     public Object clone() {
-        return new Animation( frames, totalDuration );
+        return new Animation( clip );
     }
     
     
     /**
      * Adiciona uma imagem à animação com uma duração especificada.
-     * (tempo para exibir a imagem).
+     * (tempo para exibir a imagem). As duplicatas criadas anteriormente
+     * continuam com o clip antigo.
      */
-    public synchronized void addFrame( Image image, long duration ) {
-        
-        totalDuration += duration;
-        frames.add( new AnimFrame( image, totalDuration ) );
-        
+    public void addFrame( Image image, long duration ) {
+        clip = clip.addFrame( image, duration );
+    }
+    
+    
+    /**
+     * Configura as margens internas, em pixels, da caixa de colisão dos 
+     * quadros dessa animação.
+     */
+    public void setHitboxInsets( int left, int top, int right, int bottom ) {
+        clip = clip.setHitboxInsets( left, top, right, bottom );
+    }
+    
+    
+    /**
+     * Adiciona os quadros da animação ao atlas especificado, passando a 
+     * desenhá-los a partir dele. As duplicatas criadas anteriormente 
+     * continuam com o clip antigo.
+     */
+    public void pack( TextureAtlas atlas ) {
+        clip = clip.pack( atlas );
+    }
+    
+    
+    /**
+     * Obtém o clip reproduzido por essa animação.
+     */
+    public AnimationClip getClip() {
+        return clip;
     }
     
     
     /**
      * Inicia a animação desde o início.
      */
-    public synchronized void start() {
+    public void start() {
         animTime = 0;
         currFrameIndex = 0;
     }
@@ -70,24 +95,19 @@ public class Animation {
     /**
      * Atualiza o quadro atual desta animação, se necessário.
      */
-    public synchronized void update( long elapsedTime ) {
+    public void update( long elapsedTime ) {
         
-        if ( frames.size() > 1 ) {
+        long totalDuration = clip.getTotalDuration();
+        
+        if ( clip.getFrameCount() > 1 && totalDuration > 0 ) {
             
             animTime += elapsedTime;
             
             if ( animTime >= totalDuration ) {
-                
                 animTime = animTime % totalDuration;
-                currFrameIndex = 0;
-                
             }
             
-            while ( animTime > getFrame( currFrameIndex ).endTime ) {
-                
-                currFrameIndex++;
-                
-            }
+            currFrameIndex = clip.getFrameIndex( animTime );
             
         }
         
@@ -98,48 +118,66 @@ public class Animation {
      * Obtém a imagem atual da animação. Retorna null se a animação
      * não tiver nenhuma imagem.
      */
-    public synchronized Image getImage() {
+    public Image getImage() {
         
-        if ( frames.size() == 0 ) {
+        if ( clip.getFrameCount() == 0 ) {
             
             return null;
             
         } else {
             
-            return getFrame( currFrameIndex ).image;
+            return clip.getImage( currFrameIndex );
             
         }
         
     }
     
+    
     /**
-     * Obtém um frame da animação.
+     * Desenha a imagem atual da animação com o canto superior esquerdo na
+     * posição especificada. Não desenha nada se a animação não tiver 
+     * nenhuma imagem.
      */
-    private AnimFrame getFrame( int i ) {
-        
-        return ( AnimFrame ) frames.get( i );
-        
+    public void draw( Graphics g, int x, int y ) {
+        if ( clip.getFrameCount() != 0 ) {
+            clip.drawFrame( g, currFrameIndex, x, y );
+        }
     }
     
     
     /**
-     * Class interna privada que modela um frame (quadro) da animação.
+     * Obtém a largura da imagem atual, ou zero se a animação não tiver 
+     * nenhuma imagem.
      */
-    private class AnimFrame {
-        
-        Image image;
-        long endTime;
-        
-        /**
-         * Cria uma novo AnimFrame com uma imagem e o tempo de duração.
-         */
-        public AnimFrame( Image image, long endTime ) {
-            
-            this.image = image;
-            this.endTime = endTime;
-            
-        }
-        
+    public int getWidth() {
+        return clip.getFrameCount() == 0 ? 0 : clip.getWidth( currFrameIndex );
+    }
+    
+    
+    /**
+     * Obtém a altura da imagem atual, ou zero se a animação não tiver 
+     * nenhuma imagem.
+     */
+    public int getHeight() {
+        return clip.getFrameCount() == 0 ? 0 : clip.getHeight( currFrameIndex );
+    }
+    
+    
+    /**
+     * Obtém a largura da caixa de colisão do quadro atual.
+     */
+    public int getHitboxWidth() {
+        return clip.getFrameCount() == 0 ? 
+                0 : clip.getHitboxWidth( currFrameIndex );
+    }
+    
+    
+    /**
+     * Obtém a altura da caixa de colisão do quadro atual.
+     */
+    public int getHitboxHeight() {
+        return clip.getFrameCount() == 0 ? 
+                0 : clip.getHitboxHeight( currFrameIndex );
     }
     
-}
\ No newline at end of file
+}
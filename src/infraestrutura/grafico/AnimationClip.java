@@ -0,0 +1,270 @@
+package infraestrutura.grafico;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.util.Arrays;
+
+/**
+ * A classe AnimationClip guarda os quadros de uma animação e o instante em
+ * que cada quadro termina. Ela é imutável e pode ser compartilhada por todas
+ * as Animations (e threads) que tocam os mesmos quadros, enquanto o estado da
+ * reprodução fica em cada Animation.
+ *
+ * <p>O tamanho de cada quadro é obtido uma única vez, na criação do clip,
+ * junto com a caixa de colisão (hitbox) do quadro, que por padrão é a 
+ * imagem inteira e pode ser reduzida com margens internas.
+ *
+ * <p>Um clip pode ser empacotado em um TextureAtlas, e então seus quadros
+ * são desenhados a partir das regiões das páginas do atlas.
+ *
+ * @author David Buzatto
+ */
+public final class AnimationClip {
+    
+    /**
+     * Clip sem nenhum quadro.
+     */
+    public static final AnimationClip EMPTY =
+            new AnimationClip( new Image[ 0 ], new long[ 0 ] );
+    
+    private final Image[] frames;
+    private final long[] endTimes;
+    
+    // tamanho de cada quadro
+    private final int[] widths;
+    private final int[] heights;
+    
+    // regiões dos quadros no atlas, ou null se o clip não foi empacotado
+    private final AtlasRegion[] regions;
+    
+    // margens internas da caixa de colisão, iguais em todos os quadros
+    private final int hitboxLeft;
+    private final int hitboxTop;
+    private final int hitboxRight;
+    private final int hitboxBottom;
+    
+    
+    /**
+     * Cria um AnimationClip com as imagens dos quadros e o instante, contado
+     * a partir do início da animação, em que cada quadro termina. Os
+     * instantes precisam ser crescentes.
+     */
+    public AnimationClip( Image[] frames, long[] endTimes ) {
+        this( frames, endTimes, 0, 0, 0, 0 );
+    }
+    
+    
+    /**
+     * Cria um AnimationClip com as imagens dos quadros, o instante em que
+     * cada quadro termina e as margens internas, em pixels, que separam a 
+     * caixa de colisão das bordas de cada imagem.
+     */
+    public AnimationClip( Image[] frames, long[] endTimes,
+            int hitboxLeft, int hitboxTop, int hitboxRight, int hitboxBottom ) {
+        this( frames, endTimes, hitboxLeft, hitboxTop, hitboxRight,
+                hitboxBottom, null );
+    }
+    
+    
+    private AnimationClip( Image[] frames, long[] endTimes,
+            int hitboxLeft, int hitboxTop, int hitboxRight, int hitboxBottom,
+            AtlasRegion[] regions ) {
+        
+        if ( frames.length != endTimes.length ) {
+            throw new IllegalArgumentException(
+                    "frames e endTimes devem ter o mesmo tamanho." );
+        }
+        
+        this.frames = frames.clone();
+        this.endTimes = endTimes.clone();
+        this.hitboxLeft = hitboxLeft;
+        this.hitboxTop = hitboxTop;
+        this.hitboxRight = hitboxRight;
+        this.hitboxBottom = hitboxBottom;
+        this.regions = regions;
+        
+        widths = new int[ frames.length ];
+        heights = new int[ frames.length ];
+        for ( int i = 0; i < frames.length; i++ ) {
+            if ( frames[ i ] != null ) {
+                widths[ i ] = frames[ i ].getWidth( null );
+                heights[ i ] = frames[ i ].getHeight( null );
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Cria um novo AnimationClip com os quadros desse clip e mais um
+     * quadro no fim, com a duração especificada.
+     */
+    public AnimationClip addFrame( Image image, long duration ) {
+        
+        int count = frames.length;
+        Image[] newFrames = Arrays.copyOf( frames, count + 1 );
+        long[] newEndTimes = Arrays.copyOf( endTimes, count + 1 );
+        newFrames[ count ] = image;
+        newEndTimes[ count ] = getTotalDuration() + duration;
+        
+        // o novo quadro não está no atlas e é desenhado a partir da imagem
+        AtlasRegion[] newRegions = regions == null ?
+                null : Arrays.copyOf( regions, count + 1 );
+        
+        return new AnimationClip( newFrames, newEndTimes,
+                hitboxLeft, hitboxTop, hitboxRight, hitboxBottom, newRegions );
+        
+    }
+    
+    
+    /**
+     * Cria um novo AnimationClip com os mesmos quadros desse clip e as
+     * margens internas da caixa de colisão especificadas, em pixels.
+     */
+    public AnimationClip setHitboxInsets( int left, int top, 
+            int right, int bottom ) {
+        return new AnimationClip( frames, endTimes, 
+                left, top, right, bottom, regions );
+    }
+    
+    
+    /**
+     * Cria um novo AnimationClip igual a esse, com os quadros adicionados ao
+     * atlas especificado.
+     */
+    public AnimationClip pack( TextureAtlas atlas ) {
+        
+        AtlasRegion[] newRegions = new AtlasRegion[ frames.length ];
+        for ( int i = 0; i < frames.length; i++ ) {
+            if ( frames[ i ] != null ) {
+                newRegions[ i ] = atlas.add( frames[ i ] );
+            }
+        }
+        
+        return new AnimationClip( frames, endTimes, hitboxLeft, hitboxTop,
+                hitboxRight, hitboxBottom, newRegions );
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de quadros.
+     */
+    public int getFrameCount() {
+        return frames.length;
+    }
+    
+    
+    /**
+     * Obtém a imagem de um quadro.
+     */
+    public Image getImage( int frameIndex ) {
+        return frames[ frameIndex ];
+    }
+    
+    
+    /**
+     * Obtém a região de um quadro no atlas, ou null se o quadro não foi
+     * empacotado.
+     */
+    public AtlasRegion getRegion( int frameIndex ) {
+        return regions == null ? null : regions[ frameIndex ];
+    }
+    
+    
+    /**
+     * Desenha um quadro com o canto superior esquerdo na posição 
+     * especificada, a partir do atlas quando o quadro foi empacotado.
+     */
+    public void drawFrame( Graphics g, int frameIndex, int x, int y ) {
+        AtlasRegion region = getRegion( frameIndex );
+        if ( region != null ) {
+            region.draw( g, x, y );
+        } else {
+            g.drawImage( frames[ frameIndex ], x, y, null );
+        }
+    }
+    
+    
+    /**
+     * Obtém a largura da imagem de um quadro.
+     */
+    public int getWidth( int frameIndex ) {
+        return widths[ frameIndex ];
+    }
+    
+    
+    /**
+     * Obtém a altura da imagem de um quadro.
+     */
+    public int getHeight( int frameIndex ) {
+        return heights[ frameIndex ];
+    }
+    
+    
+    /**
+     * Obtém a distância horizontal entre a borda esquerda da imagem e a 
+     * caixa de colisão.
+     */
+    public int getHitboxX() {
+        return hitboxLeft;
+    }
+    
+    
+    /**
+     * Obtém a distância vertical entre a borda superior da imagem e a caixa
+     * de colisão.
+     */
+    public int getHitboxY() {
+        return hitboxTop;
+    }
+    
+    
+    /**
+     * Obtém a largura da caixa de colisão de um quadro.
+     */
+    public int getHitboxWidth( int frameIndex ) {
+        return widths[ frameIndex ] - hitboxLeft - hitboxRight;
+    }
+    
+    
+    /**
+     * Obtém a altura da caixa de colisão de um quadro.
+     */
+    public int getHitboxHeight( int frameIndex ) {
+        return heights[ frameIndex ] - hitboxTop - hitboxBottom;
+    }
+    
+    
+    /**
+     * Obtém a duração total do clip.
+     */
+    public long getTotalDuration() {
+        return frames.length == 0 ? 0 : endTimes[ frames.length - 1 ];
+    }
+    
+    
+    /**
+     * Obtém o índice do quadro exibido no instante especificado, que deve
+     * estar entre zero e a duração total. Usa busca binária nos instantes
+     * finais dos quadros.
+     */
+    public int getFrameIndex( long animTime ) {
+        
+        // primeiro quadro que termina em animTime ou depois
+        int low = 0;
+        int high = endTimes.length - 1;
+        while ( low < high ) {
+            int middle = ( low + high ) >>> 1;
+            if ( endTimes[ middle ] < animTime ) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        
+        return low;
+        
+    }
+    
+}
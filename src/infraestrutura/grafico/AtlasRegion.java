@@ -0,0 +1,96 @@
+package infraestrutura.grafico;
+
+import java.awt.Graphics;
+import java.awt.Image;
+
+/**
+ * A classe AtlasRegion identifica uma imagem guardada em uma página de um
+ * TextureAtlas: a página e o retângulo que a imagem ocupa nela. Desenhar a
+ * região copia somente esse retângulo da página, de forma que todas as
+ * imagens de uma página são desenhadas a partir da mesma superfície. A
+ * região guarda a página do atlas, e não a sua imagem, então continua 
+ * válida quando o atlas recria a imagem da página.
+ *
+ * @author David Buzatto
+ */
+public final class AtlasRegion {
+    
+    private final TextureAtlas.Page page;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    
+    
+    /**
+     * Cria uma nova região com a página e o retângulo especificados.
+     */
+    public AtlasRegion( Image page, int x, int y, int width, int height ) {
+        this( new TextureAtlas.Page( page ), x, y, width, height );
+    }
+    
+    
+    /**
+     * Cria uma nova região com a página de um atlas e o retângulo 
+     * especificados.
+     */
+    AtlasRegion( TextureAtlas.Page page, int x, int y, int width, 
+            int height ) {
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+    
+    
+    /**
+     * Desenha a região com o canto superior esquerdo na posição
+     * especificada.
+     */
+    public void draw( Graphics g, int dx, int dy ) {
+        g.drawImage( page.image, dx, dy, dx + width, dy + height,
+                x, y, x + width, y + height, null );
+    }
+    
+    
+    /**
+     * Obtém a imagem atual da página em que a região está.
+     */
+    public Image getPage() {
+        return page.image;
+    }
+    
+    
+    /**
+     * Obtém a posição x da região na página.
+     */
+    public int getX() {
+        return x;
+    }
+    
+    
+    /**
+     * Obtém a posição y da região na página.
+     */
+    public int getY() {
+        return y;
+    }
+    
+    
+    /**
+     * Obtém a largura da região.
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    
+    /**
+     * Obtém a altura da região.
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+}
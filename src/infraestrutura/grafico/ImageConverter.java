@@ -0,0 +1,233 @@
+package infraestrutura.grafico;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * A classe ImageConverter copia as imagens carregadas para imagens
+ * compatíveis com a configuração gráfica, que podem ser desenhadas sem
+ * conversão de formato e ficam guardadas na memória de vídeo quando há
+ * aceleração. A transparência de cada imagem é detectada pelos seus pixels:
+ * OPAQUE se nenhum pixel for transparente, BITMASK se os pixels forem
+ * totalmente opacos ou totalmente transparentes e TRANSLUCENT caso
+ * contrário.
+ *
+ * <p>Cada imagem convertida é registrada, e getReport() informa a
+ * transparência de cada uma e se ela está acelerada. As imagens compatíveis
+ * só passam a ser aceleradas depois de desenhadas algumas vezes, então o
+ * relatório é mais útil com o jogo em andamento. O registro não impede que
+ * as imagens que o jogo não usa mais sejam descartadas.
+ *
+ * <p>Sem configuração gráfica (execução sem tela), as imagens são copiadas
+ * para BufferedImages RGB ou ARGB comuns. As imagens podem ser convertidas
+ * por várias threads ao mesmo tempo.
+ *
+ * @author David Buzatto
+ */
+public class ImageConverter {
+    
+    private GraphicsConfiguration gc;
+    private boolean volatileImagesEnabled;
+    
+    // imagens convertidas, seus nomes e transparências, na ordem da conversão
+    private ArrayList< String > names;
+    private ArrayList< WeakReference< Image > > images;
+    private ArrayList< Integer > transparencies;
+    
+    
+    /**
+     * Cria um novo ImageConverter para a configuração gráfica especificada,
+     * que pode ser null quando o jogo é executado sem tela.
+     */
+    public ImageConverter( GraphicsConfiguration gc ) {
+        this.gc = gc;
+        names = new ArrayList< String >();
+        images = new ArrayList< WeakReference< Image > >();
+        transparencies = new ArrayList< Integer >();
+    }
+    
+    
+    /**
+     * Obtém a configuração gráfica, ou null se não houver.
+     */
+    public GraphicsConfiguration getGraphicsConfiguration() {
+        return gc;
+    }
+    
+    
+    /**
+     * Configura se as imagens que são desenhadas todo quadro (as páginas do
+     * TextureAtlas) devem ser mantidas também em VolatileImages.
+     */
+    public void setVolatileImagesEnabled( boolean volatileImagesEnabled ) {
+        this.volatileImagesEnabled = volatileImagesEnabled;
+    }
+    
+    
+    /**
+     * Verifica se as VolatileImages estão ativadas.
+     */
+    public boolean isVolatileImagesEnabled() {
+        return volatileImagesEnabled;
+    }
+    
+    
+    /**
+     * Converte uma imagem carregada, que precisa estar completamente
+     * decodificada, para uma imagem compatível com a configuração gráfica e
+     * com a transparência dos seus pixels. O nome identifica a imagem no
+     * relatório.
+     */
+    public Image convert( String name, Image image ) {
+        
+        int width = image.getWidth( null );
+        int height = image.getHeight( null );
+        if ( width <= 0 || height <= 0 ) {
+            return image;
+        }
+        
+        // obtém os pixels da imagem
+        BufferedImage argb = new BufferedImage( width, height,
+                BufferedImage.TYPE_INT_ARGB );
+        Graphics2D g = argb.createGraphics();
+        g.setComposite( AlphaComposite.Src );
+        g.drawImage( image, 0, 0, null );
+        g.dispose();
+        
+        // lê os pixels com getRGB() para não impedir que argb seja acelerada
+        int transparency = getTransparency( 
+                argb.getRGB( 0, 0, width, height, null, 0, width ) );
+        
+        Image converted;
+        if ( gc != null ) {
+            converted = gc.createCompatibleImage( width, height, transparency );
+        } else if ( transparency == Transparency.OPAQUE ) {
+            converted = new BufferedImage( width, height,
+                    BufferedImage.TYPE_INT_RGB );
+        } else {
+            converted = argb;
+        }
+        
+        if ( converted != argb ) {
+            g = ( Graphics2D ) converted.getGraphics();
+            g.setComposite( AlphaComposite.Src );
+            g.drawImage( argb, 0, 0, null );
+            g.dispose();
+        }
+        
+        synchronized ( this ) {
+            names.add( name );
+            images.add( new WeakReference< Image >( converted ) );
+            transparencies.add( transparency );
+        }
+        
+        return converted;
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de imagens convertidas.
+     */
+    public synchronized int getImageCount() {
+        return images.size();
+    }
+    
+    
+    /**
+     * Obtém a quantidade de imagens convertidas que estão aceleradas.
+     */
+    public synchronized int getAcceleratedCount() {
+        int count = 0;
+        for ( WeakReference< Image > reference : images ) {
+            Image image = reference.get();
+            if ( image != null && isAccelerated( image ) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    
+    /**
+     * Verifica se uma imagem está acelerada na configuração gráfica.
+     */
+    public boolean isAccelerated( Image image ) {
+        if ( gc == null ) {
+            return false;
+        }
+        ImageCapabilities capabilities = image.getCapabilities( gc );
+        return capabilities != null && capabilities.isAccelerated();
+    }
+    
+    
+    /**
+     * Cria um relatório com uma linha por imagem convertida, com o nome, o
+     * tamanho, a transparência e se a imagem está acelerada.
+     */
+    public synchronized String getReport() {
+        
+        StringBuilder report = new StringBuilder();
+        for ( int i = 0; i < images.size(); i++ ) {
+            Image image = images.get( i ).get();
+            if ( image == null ) {
+                report.append( names.get( i ) ).append( " descartada\n" );
+                continue;
+            }
+            report.append( names.get( i ) ).append( ' ' )
+                    .append( image.getWidth( null ) ).append( 'x' )
+                    .append( image.getHeight( null ) ).append( ' ' )
+                    .append( getTransparencyName( transparencies.get( i ) ) )
+                    .append( ' ' )
+                    .append( isAccelerated( image ) ?
+                            "acelerada" : "não acelerada" )
+                    .append( '\n' );
+        }
+        report.append( getAcceleratedCount() ).append( " de " )
+                .append( images.size() ).append( " imagens aceleradas\n" );
+        
+        return report.toString();
+        
+    }
+    
+    
+    /**
+     * Obtém a transparência de um conjunto de pixels ARGB.
+     */
+    public static int getTransparency( int[] pixels ) {
+        
+        int transparency = Transparency.OPAQUE;
+        for ( int pixel : pixels ) {
+            int alpha = pixel >>> 24;
+            if ( alpha != 0xFF ) {
+                if ( alpha != 0 ) {
+                    return Transparency.TRANSLUCENT;
+                }
+                transparency = Transparency.BITMASK;
+            }
+        }
+        
+        return transparency;
+        
+    }
+    
+    
+    /**
+     * Obtém o nome de uma transparência.
+     */
+    private static String getTransparencyName( int transparency ) {
+        
+        switch ( transparency ) {
+            case Transparency.OPAQUE:
+                return "OPAQUE";
+            case Transparency.BITMASK:
+                return "BITMASK";
+            default:
+                return "TRANSLUCENT";
+        }
+        
+    }
+    
+}
@@ -15,11 +15,14 @@ public class Sprite {
     private float x;
     private float y;
     
+    // posicionamento no passo de simulação anterior (para interpolação)
+    private float previousX;
+    private float previousY;
+    
     // velocidade (pixels por milisegundo)
     private float velocityX;
     private float velocityY;
     
-    
     /*
      * Cria um novo objeto Sprite com a animação especificada.
      */
@@ -70,6 +73,34 @@ public class Sprite {
     }
     
     
+    /**
+     * Guarda a posição atual como a posição do passo de simulação anterior.
+     * Deve ser chamado antes de cada atualização da sprite.
+     */
+    public void savePosition() {
+        previousX = x;
+        previousY = y;
+    }
+    
+    
+    /**
+     * Obtém a posição x interpolada entre o passo anterior e o atual, onde
+     * alpha varia entre 0 (posição anterior) e 1 (posição atual).
+     */
+    public float getInterpolatedX( float alpha ) {
+        return previousX + ( x - previousX ) * alpha;
+    }
+    
+    
+    /**
+     * Obtém a posição y interpolada entre o passo anterior e o atual, onde
+     * alpha varia entre 0 (posição anterior) e 1 (posição atual).
+     */
+    public float getInterpolatedY( float alpha ) {
+        return previousY + ( y - previousY ) * alpha;
+    }
+    
+    
     /**
      * Obtém a velocidade horizontal da sprite em pixels por milisegundo.
      */
@@ -104,17 +135,51 @@ public class Sprite {
     
     /**
      * Obtém a largura da Sprite, baseado no tamanho da imagem atual.
+     * O tamanho vem do AnimationClip, sem consultar a imagem.
      */
     public int getWidth() {
-        return anim.getImage().getWidth( null );
+        return anim.getWidth();
     }
     
     
     /**
      * Obtém a altura da Sprite, baseado no tamanho da imagem atual.
+     * O tamanho vem do AnimationClip, sem consultar a imagem.
      */
     public int getHeight() {
-        return anim.getImage().getHeight( null );
+        return anim.getHeight();
+    }
+    
+    
+    /**
+     * Obtém a posição x da caixa de colisão da Sprite.
+     */
+    public float getHitboxX() {
+        return x + anim.getClip().getHitboxX();
+    }
+    
+    
+    /**
+     * Obtém a posição y da caixa de colisão da Sprite.
+     */
+    public float getHitboxY() {
+        return y + anim.getClip().getHitboxY();
+    }
+    
+    
+    /**
+     * Obtém a largura da caixa de colisão da Sprite.
+     */
+    public int getHitboxWidth() {
+        return anim.getHitboxWidth();
+    }
+    
+    
+    /**
+     * Obtém a altura da caixa de colisão da Sprite.
+     */
+    public int getHitboxHeight() {
+        return anim.getHitboxHeight();
     }
     
     
@@ -126,6 +191,31 @@ public class Sprite {
     }
     
     
+    /**
+     * Desenha a imagem atual da Sprite com o canto superior esquerdo na
+     * posição especificada.
+     */
+    public void draw( Graphics g, int x, int y ) {
+        anim.draw( g, x, y );
+    }
+    
+    
+    /**
+     * Volta a sprite ao estado de uma sprite recém clonada, para que ela
+     * possa ser reaproveitada. Só deve ser chamado com a sprite fora de
+     * qualquer mapa.
+     */
+    public void reset() {
+        x = 0;
+        y = 0;
+        previousX = 0;
+        previousY = 0;
+        velocityX = 0;
+        velocityY = 0;
+        anim.start();
+    }
+    
+    
     /**
      * Clona a Sprite. Não clona a posição ou valocidade.
      */
@@ -0,0 +1,262 @@
+package infraestrutura.grafico;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * A classe TextureAtlas junta muitas imagens pequenas (pedaços, quadros das
+ * animações, dígitos da interface) em poucas imagens grandes, as páginas,
+ * compatíveis com a configuração gráfica. Cada imagem adicionada é copiada
+ * para uma página e representada por uma AtlasRegion, de forma que o jogo
+ * desenha a partir de poucas superfícies ao invés de trocar de superfície a
+ * cada imagem.
+ *
+ * <p>As imagens são arrumadas em prateleiras: cada uma é colocada à direita
+ * da anterior, e quando a prateleira enche uma nova é aberta logo abaixo da
+ * mais alta imagem da prateleira atual. Quando a página enche, uma nova
+ * página é criada. As imagens podem ser adicionadas a qualquer momento e uma
+ * imagem adicionada mais de uma vez ocupa uma única região. As imagens podem
+ * ser adicionadas por várias threads ao mesmo tempo.
+ *
+ * <p>Opcionalmente, as páginas são mantidas também em VolatileImages
+ * aceleradas, de onde as regiões são desenhadas. As imagens continuam sendo
+ * copiadas para uma página comum, usada para recriar o conteúdo da 
+ * VolatileImage em validate(), que precisa ser chamado antes de desenhar
+ * cada quadro. Se a VolatileImage deixar de ser compatível com a 
+ * configuração gráfica, validate() cria uma nova, e as regiões, que guardam
+ * a página e não a sua imagem, passam a desenhar a partir dela.
+ *
+ * @author David Buzatto
+ */
+public class TextureAtlas {
+    
+    /**
+     * Largura e altura de uma página, em pixels.
+     */
+    public static final int PAGE_SIZE = 1024;
+    
+    // espaço, em pixels, entre as imagens de uma página
+    private static final int PADDING = 1;
+    
+    private GraphicsConfiguration gc;
+    private boolean volatilePages;
+    private ArrayList< Page > pages;
+    private IdentityHashMap< Image, AtlasRegion > regions;
+    
+    // prateleira atual da última página
+    private int shelfY;
+    private int shelfHeight;
+    private int cursorX;
+    
+    
+    /**
+     * Cria um novo TextureAtlas vazio, com páginas compatíveis com a
+     * configuração gráfica especificada. A configuração pode ser null
+     * quando o jogo é executado sem tela.
+     */
+    public TextureAtlas( GraphicsConfiguration gc ) {
+        this( gc, false );
+    }
+    
+    
+    /**
+     * Cria um novo TextureAtlas vazio, com páginas compatíveis com a
+     * configuração gráfica especificada, mantidas também em VolatileImages
+     * se volatilePages for verdadeiro e houver aceleração gráfica.
+     */
+    public TextureAtlas( GraphicsConfiguration gc, boolean volatilePages ) {
+        this.gc = gc;
+        this.volatilePages = volatilePages && gc != null;
+        pages = new ArrayList< Page >();
+        regions = new IdentityHashMap< Image, AtlasRegion >();
+    }
+    
+    
+    /**
+     * Adiciona uma imagem ao atlas, obtendo a região que ela ocupa. A imagem
+     * precisa estar carregada. Uma imagem maior do que uma página não é
+     * copiada e sua região ocupa a própria imagem.
+     */
+    public synchronized AtlasRegion add( Image image ) {
+        
+        AtlasRegion region = regions.get( image );
+        if ( region != null ) {
+            return region;
+        }
+        
+        int width = image.getWidth( null );
+        int height = image.getHeight( null );
+        if ( width < 0 || height < 0 ) {
+            throw new IllegalArgumentException( "A imagem não está carregada" );
+        }
+        
+        if ( width > PAGE_SIZE || height > PAGE_SIZE ) {
+            
+            region = new AtlasRegion( image, 0, 0, width, height );
+            
+        } else {
+            
+            // abre uma nova prateleira se a imagem não couber na atual
+            if ( cursorX + width > PAGE_SIZE ) {
+                shelfY += shelfHeight + PADDING;
+                shelfHeight = 0;
+                cursorX = 0;
+            }
+            
+            // cria uma nova página se a imagem não couber na última
+            if ( pages.isEmpty() || shelfY + height > PAGE_SIZE ) {
+                pages.add( createPage() );
+                shelfY = 0;
+                shelfHeight = 0;
+                cursorX = 0;
+            }
+            
+            Page page = pages.get( pages.size() - 1 );
+            Graphics2D g = ( Graphics2D ) page.backing.getGraphics();
+            g.setComposite( AlphaComposite.Src );
+            g.drawImage( image, cursorX, shelfY, null );
+            g.dispose();
+            page.dirty = true;
+            
+            region = new AtlasRegion( page, cursorX, shelfY, 
+                    width, height );
+            cursorX += width + PADDING;
+            shelfHeight = Math.max( shelfHeight, height );
+            
+        }
+        
+        regions.put( image, region );
+        return region;
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de páginas.
+     */
+    public synchronized int getPageCount() {
+        return pages.size();
+    }
+    
+    
+    /**
+     * Obtém uma página.
+     */
+    public synchronized Image getPage( int index ) {
+        return pages.get( index ).image;
+    }
+    
+    
+    /**
+     * Prepara as VolatileImages das páginas para desenhar um quadro, 
+     * recriando seu conteúdo se ele foi perdido ou se imagens foram 
+     * adicionadas. Não faz nada se as páginas não forem VolatileImages.
+     */
+    public synchronized void validate() {
+        
+        for ( Page page : pages ) {
+            
+            if ( page.image == page.backing ) {
+                continue;
+            }
+            
+            VolatileImage image = ( VolatileImage ) page.image;
+            int status = image.validate( gc );
+            
+            // a imagem não serve mais para a configuração gráfica atual
+            if ( status == VolatileImage.IMAGE_INCOMPATIBLE ) {
+                image.flush();
+                page.image = createVolatileImage( page.backing );
+                if ( page.image == page.backing ) {
+                    continue;
+                }
+                image = ( VolatileImage ) page.image;
+            }
+            
+            if ( status != VolatileImage.IMAGE_OK || page.dirty ) {
+                Graphics2D g = image.createGraphics();
+                g.setComposite( AlphaComposite.Src );
+                g.drawImage( page.backing, 0, 0, null );
+                g.dispose();
+                page.dirty = false;
+            }
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de imagens adicionadas.
+     */
+    public synchronized int getRegionCount() {
+        return regions.size();
+    }
+    
+    
+    /**
+     * Cria uma página transparente compatível com a configuração gráfica.
+     */
+    private Page createPage() {
+        
+        Image backing;
+        if ( gc == null ) {
+            backing = new BufferedImage( PAGE_SIZE, PAGE_SIZE,
+                    BufferedImage.TYPE_INT_ARGB );
+        } else {
+            backing = gc.createCompatibleImage( PAGE_SIZE, PAGE_SIZE,
+                    Transparency.TRANSLUCENT );
+        }
+        
+        Page page = new Page( backing );
+        if ( volatilePages ) {
+            page.image = createVolatileImage( backing );
+            page.dirty = true;
+        }
+        
+        return page;
+        
+    }
+    
+    
+    /**
+     * Cria a VolatileImage de uma página. Usa uma VolatileImage somente se
+     * ela for acelerada, retornando a página comum caso contrário.
+     */
+    private Image createVolatileImage( Image backing ) {
+        
+        VolatileImage image = gc.createCompatibleVolatileImage(
+                PAGE_SIZE, PAGE_SIZE, Transparency.TRANSLUCENT );
+        if ( image.getCapabilities().isAccelerated() ) {
+            return image;
+        }
+        
+        image.flush();
+        return backing;
+        
+    }
+    
+    
+    /**
+     * Uma página do atlas: a imagem de onde as regiões são desenhadas e a
+     * imagem em que as imagens adicionadas são copiadas, que são a mesma
+     * quando a página não é uma VolatileImage. A imagem pode ser trocada por
+     * validate(), então as regiões a obtêm da página a cada desenho.
+     */
+    static final class Page {
+        
+        volatile Image image;
+        Image backing;
+        boolean dirty;
+        
+        Page( Image backing ) {
+            this.image = backing;
+            this.backing = backing;
+        }
+        
+    }
+    
+}
@@ -42,10 +42,21 @@ public class MidiPlayer implements MetaEventListener {
      * ocorrer.
      */
     public Sequence getSequence( String name ) {
+        return loadSequence( name );
+    }
+    
+    
+    /**
+     * Carrega a seqüência do sistema de arquivos sem usar nenhum 
+     * MidiPlayer, podendo ser chamado de qualquer thread. Retorna null se um
+     * erro ocorrer.
+     */
+    public static Sequence loadSequence( String name ) {
         
         String filename = "/recursos/sons/" + name;
         try {
-            return MidiSystem.getSequence( getClass().getResource( ( filename ) ) );
+            return MidiSystem.getSequence( 
+                    MidiPlayer.class.getResource( filename ) );
         } catch ( InvalidMidiDataException ex ) {
             ex.printStackTrace();
             return null;
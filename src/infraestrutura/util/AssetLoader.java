@@ -0,0 +1,168 @@
+package infraestrutura.util;
+
+import java.awt.Component;
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.Toolkit;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A classe AssetLoader carrega os recursos do jogo (imagens, sons, músicas)
+ * em paralelo, executando cada carga como uma tarefa de um ThreadPool. Cada
+ * carga é representada por um Future, de onde o recurso é obtido quando
+ * estiver pronto, e o andamento das cargas pode ser acompanhado, por exemplo,
+ * para exibir uma barra de progresso.
+ *
+ * <p>Uma tarefa pode obter o resultado de outra com get(). Se a outra tarefa
+ * ainda não começou, ela é executada na própria thread que a aguarda, de
+ * forma que as tarefas podem depender umas das outras sem que o pool fique
+ * sem threads livres.
+ *
+ * @author David Buzatto
+ */
+public class AssetLoader {
+    
+    // componente usado somente para acompanhar a carga das imagens
+    private static final Component TRACKER_COMPONENT = new Component() {};
+    
+    private ThreadPool threadPool;
+    private int taskCount;
+    private int completedCount;
+    
+    
+    /**
+     * Cria um novo AssetLoader com a quantidade de threads especificada.
+     */
+    public AssetLoader( int numThreads ) {
+        threadPool = new ThreadPool( numThreads );
+    }
+    
+    
+    /**
+     * Requisita a carga de um recurso. Este método retorna imediatamente e
+     * o recurso é carregado pela próxima thread parada do pool.
+     */
+    public < T > Future< T > load( Callable< T > loader ) {
+        
+        FutureTask< T > task = new FutureTask< T >( loader ) {
+            @Override
+            protected void done() {
+                taskCompleted();
+            }
+        };
+        
+        synchronized ( this ) {
+            taskCount++;
+        }
+        threadPool.runTask( task );
+        
+        return task;
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de cargas requisitadas.
+     */
+    public synchronized int getTaskCount() {
+        return taskCount;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de cargas terminadas.
+     */
+    public synchronized int getCompletedCount() {
+        return completedCount;
+    }
+    
+    
+    /**
+     * Obtém a fração das cargas requisitadas que já terminaram, entre 0 e 1.
+     */
+    public synchronized float getProgress() {
+        return taskCount == 0 ? 1 : ( float ) completedCount / taskCount;
+    }
+    
+    
+    /**
+     * Verifica se todas as cargas requisitadas terminaram.
+     */
+    public synchronized boolean isDone() {
+        return completedCount == taskCount;
+    }
+    
+    
+    /**
+     * Fecha o pool de threads. As cargas que ainda não começaram não são
+     * executadas.
+     */
+    public void close() {
+        threadPool.close();
+    }
+    
+    
+    /**
+     * Obtém um recurso, aguardando sua carga se necessário. Se a carga ainda
+     * não começou, ela é executada na thread atual. Os erros ocorridos na
+     * carga são relançados.
+     */
+    public static < T > T get( Future< T > asset ) {
+        
+        if ( asset instanceof FutureTask ) {
+            // não faz nada se a tarefa já começou em outra thread
+            ( ( FutureTask< T > ) asset ).run();
+        }
+        
+        try {
+            return asset.get();
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Carga interrompida", ex );
+        } catch ( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw ( RuntimeException ) cause;
+            } else if ( cause instanceof Error ) {
+                throw ( Error ) cause;
+            }
+            throw new IllegalStateException( cause );
+        }
+        
+    }
+    
+    
+    /**
+     * Carrega uma imagem, aguardando a decodificação terminar. Diferente do
+     * ImageIcon, que decodifica uma imagem por vez em todo o programa, cada
+     * chamada usa seu próprio MediaTracker, então várias imagens podem ser
+     * decodificadas ao mesmo tempo por threads diferentes.
+     */
+    public static Image loadImage( URL url ) {
+        
+        Image image = Toolkit.getDefaultToolkit().getImage( url );
+        MediaTracker tracker = new MediaTracker( TRACKER_COMPONENT );
+        tracker.addImage( image, 0 );
+        try {
+            tracker.waitForID( 0 );
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+        }
+        
+        return image;
+        
+    }
+    
+    
+    /**
+     * Marca uma carga como terminada.
+     */
+    private synchronized void taskCompleted() {
+        completedCount++;
+    }
+    
+}
@@ -0,0 +1,77 @@
+package infraestrutura.util;
+
+import java.io.*;
+import jogo.tile.LevelData;
+import jogo.tile.LevelFile;
+
+/**
+ * O MapCompiler converte os mapas no formato texto (.txt) de um diretório
+ * para o formato binário compilado (.lvl), que é carregado pelo jogo sem
+ * interpretar o texto. É executado na compilação do projeto.
+ *
+ * <p>Uso: java infraestrutura.util.MapCompiler diretórioTexto diretórioSaída
+ * [últimaLetraDePedaço]
+ *
+ * @author David Buzatto
+ */
+public class MapCompiler {
+    
+    /**
+     * Compila um mapa texto para o formato binário.
+     */
+    public static void compile( File source, File target, char maxTileLetter )
+            throws IOException {
+        
+        LevelData level;
+        BufferedReader reader = new BufferedReader( new InputStreamReader(
+                new FileInputStream( source ), "UTF-8" ) );
+        try {
+            level = LevelFile.readText( reader, maxTileLetter );
+        } finally {
+            reader.close();
+        }
+        
+        OutputStream out = new FileOutputStream( target );
+        try {
+            LevelFile.writeBinary( level, out );
+        } finally {
+            out.close();
+        }
+        
+    }
+    
+    
+    public static void main( String[] args ) throws IOException {
+        
+        if ( args.length < 2 ) {
+            System.err.println( "uso: java infraestrutura.util.MapCompiler " +
+                    "diretórioTexto diretórioSaída [últimaLetraDePedaço]" );
+            System.exit( 1 );
+        }
+        
+        File sourceDir = new File( args[ 0 ] );
+        File targetDir = new File( args[ 1 ] );
+        char maxTileLetter = args.length > 2 ? args[ 2 ].charAt( 0 ) : 'Z';
+        targetDir.mkdirs();
+        
+        File[] sources = sourceDir.listFiles( new FilenameFilter() {
+            public boolean accept( File dir, String name ) {
+                return name.endsWith( ".txt" );
+            }
+        });
+        if ( sources == null ) {
+            throw new FileNotFoundException( sourceDir.getPath() );
+        }
+        
+        for ( File source : sources ) {
+            String name = source.getName();
+            File target = new File( targetDir,
+                    name.substring( 0, name.length() - 4 ) + ".lvl" );
+            compile( source, target, maxTileLetter );
+            System.out.println( name + " -> " + target.getName() + " (" +
+                    source.length() + " -> " + target.length() + " bytes)" );
+        }
+        
+    }
+    
+}
@@ -5,14 +5,28 @@ import jogo.tile.*;
 import jogo.sprites.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.io.*;
+import java.net.URL;
 import java.util.ArrayList;
-import javax.swing.*;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * A classe ResourceManager carrega e gerencia os pedaços (tiles) de Images e 
  * as Sprites "hospedeiras" usadas no jogo. As sprites do Jogo são clonadas a 
- * partir das Sprites hospedeiras.
+ * partir das Sprites hospedeiras ou reaproveitadas do SpritePool, que guarda
+ * as sprites liberadas pelo jogo e pelos mapas descartados.
+ *
+ * <p>As imagens dos pedaços e os quadros das animações das hospedeiras são
+ * empacotados, na carga, em um TextureAtlas compartilhado, de onde são 
+ * desenhados.
+ *
+ * <p>Criado com um AssetLoader, o ResourceManager carrega os pedaços e o
+ * jogador em paralelo. As hospedeiras das criaturas e dos power ups são 
+ * criadas somente quando a primeira fase que as usa é carregada, e as 
+ * imagens carregadas são compartilhadas por todas as fases.
  *
  * @author David Buzatto
  */
@@ -21,46 +35,154 @@ public class ResourceManager {
     private ArrayList< Image > tiles;
     private int currentMap;
     private GraphicsConfiguration gc;
+    private ImageConverter imageConverter;
+    private SpritePool spritePool;
+    private EntityRegistry entities;
+    private TextureAtlas atlas;
+    
+    // regiões das imagens da paleta dos mapas no atlas
+    private AtlasRegion[] tileRegions;
+    
+    // conteúdo original do mapa atual, usado para recarregá-lo
+    private LevelSource currentLevel;
     
-    // sprites hospedeiras usadas na clonagem
+    // imagens já carregadas, pelo nome, compartilhadas por todas as fases
+    private HashMap< String, Image > images;
+    
+    // sprite hospedeira do jogador, as demais ficam no EntityRegistry
     private Sprite playerSprite;
-    private Sprite mushroomSprite;
-    private Sprite coinSprite;
-    private Sprite fireFlowerSprite;
-    private Sprite oneUpSprite;
-    private Sprite goalSprite;
-    private Sprite goombaSprite;
-    private Sprite flyGoombaSprite;
-    private Sprite greenKoopaSprite;
-    private Sprite redKoopaSprite;
-    private Sprite blueKoopaSprite;
-    private Sprite yellowKoopaSprite;
-    private Sprite bombSprite;
-    private Sprite bulletSprite;
-    private Sprite batSprite;
-    private Sprite turtleSprite;
-    private Sprite mummyTurtleSprite;
-    private Sprite blueDragonSprite;
     
     
     /**
      * Cria um novo ResourceManager com o GraphicsConfiguration especificado e 
-     * a letra do último tile.
+     * a letra do último tile. O GraphicsConfiguration pode ser null quando o
+     * jogo é executado sem tela.
      */
     public ResourceManager( GraphicsConfiguration gc, char maxTileLetter ) {
-        this.gc = gc;
-        loadTileImages( maxTileLetter );
-        loadCreatureSprites();
-        loadPowerUpSprites();
+        this( gc, maxTileLetter, null );
+    }
+    
+    
+    /**
+     * Cria um novo ResourceManager com o GraphicsConfiguration especificado e 
+     * a letra do último tile, carregando as imagens com as threads do 
+     * AssetLoader. O construtor retorna quando todas as imagens estiverem
+     * carregadas. O AssetLoader pode ser null, e então as imagens são 
+     * carregadas na thread atual.
+     */
+    public ResourceManager( GraphicsConfiguration gc, 
+            char maxTileLetter, AssetLoader loader ) {
+        this( new ImageConverter( gc ), maxTileLetter, loader );
+    }
+    
+    
+    /**
+     * Cria um novo ResourceManager que converte as imagens carregadas com o
+     * ImageConverter especificado, usando sua configuração gráfica. As
+     * imagens são carregadas como no construtor anterior.
+     */
+    public ResourceManager( ImageConverter imageConverter, 
+            final char maxTileLetter, AssetLoader loader ) {
+        
+        this.imageConverter = imageConverter;
+        gc = imageConverter.getGraphicsConfiguration();
+        spritePool = new SpritePool();
+        atlas = new TextureAtlas( gc, 
+                imageConverter.isVolatileImagesEnabled() );
+        
+        images = new HashMap< String, Image >();
+        
+        if ( loader == null ) {
+            
+            loadTileImages( maxTileLetter );
+            loadPlayerSprite();
+            
+        } else {
+            
+            Future< Void > tileTask = loader.load( new Callable< Void >() {
+                public Void call() {
+                    loadTileImages( maxTileLetter );
+                    return null;
+                }
+            });
+            Future< Void > playerTask = loader.load( new Callable< Void >() {
+                public Void call() {
+                    loadPlayerSprite();
+                    return null;
+                }
+            });
+            
+            AssetLoader.get( tileTask );
+            AssetLoader.get( playerTask );
+            
+        }
+        
+        registerEntities();
+        
     }
     
     
     /**
-     * Obtem uma imagem do diretório /recursos/imagens/
+     * Obtem uma imagem do diretório /recursos/imagens/, convertida para o
+     * formato da configuração gráfica. Cada imagem é carregada uma única vez
+     * e as próximas chamadas com o mesmo nome retornam a mesma imagem.
      */
     public Image loadImage( String name ) {
+        
+        synchronized ( images ) {
+            Image image = images.get( name );
+            if ( image != null ) {
+                return image;
+            }
+        }
+        
         String filename = "/recursos/imagens/" + name;
-        return new ImageIcon( getClass().getResource( filename ) ).getImage();
+        Image image = imageConverter.convert( name, 
+                AssetLoader.loadImage( getClass().getResource( filename ) ) );
+        
+        synchronized ( images ) {
+            // mantém a imagem de outra thread que carregou o mesmo nome antes
+            Image loaded = images.get( name );
+            if ( loaded != null ) {
+                return loaded;
+            }
+            images.put( name, image );
+        }
+        
+        return image;
+        
+    }
+    
+    
+    /**
+     * Obtém o ImageConverter usado para converter as imagens carregadas.
+     */
+    public ImageConverter getImageConverter() {
+        return imageConverter;
+    }
+    
+    
+    /**
+     * Obtém o TextureAtlas em que as imagens do jogo são empacotadas.
+     */
+    public TextureAtlas getAtlas() {
+        return atlas;
+    }
+    
+    
+    /**
+     * Cria uma imagem compatível com a configuração gráfica. Sem configuração
+     * gráfica (execução sem tela), cria uma imagem ARGB comum.
+     */
+    private Image createCompatibleImage( int width, int height, 
+            int transparency ) {
+        
+        if ( gc != null ) {
+            return gc.createCompatibleImage( width, height, transparency );
+        }
+        
+        return new BufferedImage( width, height, BufferedImage.TYPE_INT_ARGB );
+        
     }
     
     
@@ -93,7 +215,7 @@ public class ResourceManager {
                 ( y - 1 ) * image.getHeight( null ) / 2);
         
         // cria uma imagem transparente (não translúcida)
-        Image newImage = gc.createCompatibleImage(
+        Image newImage = createCompatibleImage(
                 image.getWidth( null ),
                 image.getHeight( null ),
                 Transparency.BITMASK );
@@ -118,7 +240,7 @@ public class ResourceManager {
         transform.translate( 0, image.getHeight( null ) );
         
         // cria uma imagem transparente (não translúcida)
-        Image newImage = gc.createCompatibleImage(
+        Image newImage = createCompatibleImage(
                 image.getWidth( null ),
                 image.getHeight( null ),
                 Transparency.BITMASK );
@@ -136,152 +258,413 @@ public class ResourceManager {
      * Carrega o próximo mapa.
      */
     public TileMap loadNextMap() {
-        TileMap map = null;
-        while ( map == null ) {
+        return loadNextMap( readNextLevel() );
+    }
+    
+    
+    /**
+     * Cria o mapa de uma fase lida por readNextLevel(), guardando seu 
+     * conteúdo original para as próximas recargas. Retorna null se a fase
+     * for null.
+     */
+    public TileMap loadNextMap( LevelSource level ) {
+        
+        if ( level == null ) {
+            return null;
+        }
+        
+        setCurrentLevel( level );
+        return createMap( level );
+        
+    }
+    
+    
+    /**
+     * Lê o conteúdo do próximo mapa e cria as hospedeiras das entidades que
+     * ele usa, sem criar o mapa. Pode ser executado por outra thread, como 
+     * as de um AssetLoader, enquanto o mapa atual ainda está em uso. Retorna
+     * null se nenhum mapa puder ser lido.
+     */
+    public synchronized LevelSource readNextLevel() {
+        
+        while ( true ) {
             currentMap++;
             try {
-                map = loadMap( "map" + currentMap + ".txt");
+                LevelSource level = readLevel( "map" + currentMap );
+                createEntities( level );
+                return level;
             } catch ( IOException ex ) {
                 if ( currentMap == 1 ) {
                     // nenhum para carregado
                     return null;
                 }
                 currentMap = 0;
-                map = null;
             }
         }
         
-        return map;
     }
     
     
     /**
-     * Recarrega o mapa atual.
+     * Libera uma Sprite que saiu do mapa, como uma criatura morta ou uma 
+     * moeda pega, para que ela seja reaproveitada na criação de novas 
+     * Sprites.
+     */
+    public void releaseSprite( Sprite sprite ) {
+        spritePool.release( sprite );
+    }
+    
+    
+    /**
+     * Libera todas as Sprites de um mapa que não será mais usado, inclusive
+     * o jogador, para que elas sejam reaproveitadas pelo próximo mapa.
+     */
+    public void releaseMap( TileMap map ) {
+        
+        for ( int i = 0; i < map.getSpriteCount(); i++ ) {
+            spritePool.release( map.getSprite( i ) );
+        }
+        
+        if ( map.getPlayer() != null ) {
+            spritePool.release( map.getPlayer() );
+        }
+        
+    }
+    
+    
+    /**
+     * Recarrega o mapa atual a partir do seu conteúdo original, guardado na
+     * carga do mapa, sem ler o arquivo novamente.
      */
     public TileMap reloadMap() {
+        
+        if ( currentLevel != null ) {
+            return createMap( currentLevel );
+        }
+        
         try {
-            return loadMap( "map" + currentMap + ".txt" );
+            return loadMap( "map" + getCurrentMap() );
         } catch ( IOException ex ) {
             ex.printStackTrace();
             return null;
         }
+        
+    }
+    
+    
+    /**
+     * Obtém o número do mapa atual.
+     */
+    private synchronized int getCurrentMap() {
+        return currentMap;
     }
     
     
     /**
-     * Carrega um mapa do diretório /recursos/mapas/
+     * Carrega um mapa do diretório /recursos/mapas/, guardando seu conteúdo
+     * original para as próximas recargas, e cria as hospedeiras das 
+     * entidades que ele usa. O nome não tem extensão.
      */
     private TileMap loadMap( String name )
             throws IOException {
         
+        setCurrentLevel( readLevel( name ) );
+        createEntities( currentLevel );
+        return createMap( currentLevel );
+        
+    }
+    
+    
+    /**
+     * Troca a fase atual, fechando a anterior.
+     */
+    private void setCurrentLevel( LevelSource level ) {
+        
+        if ( currentLevel != null && currentLevel != level ) {
+            try {
+                currentLevel.close();
+            } catch ( IOException ex ) {
+                ex.printStackTrace();
+            }
+        }
+        
+        currentLevel = level;
+        
+    }
+    
+    
+    /**
+     * Cria um mapa com o conteúdo original de uma fase. Os chunks são 
+     * lidos da fase sob demanda e o jogador é posicionado no início.
+     */
+    private TileMap createMap( LevelSource level ) {
+        
+        TileMap newMap = new TileMap( level.getWidth(), level.getHeight(), 
+                getTilePalette(), new LevelChunkSource( level ) );
+        newMap.setPaletteRegions( tileRegions );
+        
+        // carrega os chunks próximos do início da fase
+        newMap.updateLoadedChunks( 0, 0 );
+        
+        // adiciona o jogador no mapa
+        Sprite player = spritePool.obtain( playerSprite );
+        player.setX( TileMapRenderer.tilesToPixels( 3 ) );
+        player.setY( 0 );
+        player.savePosition();
+        newMap.setPlayer( player );
+        
+        return newMap;
+        
+    }
+    
+    
+    /**
+     * Abre o conteúdo de um mapa do diretório /recursos/mapas/. Usa o 
+     * arquivo compilado (.lvl), gerado pelo MapCompiler, quando ele existir,
+     * que é lido um chunk por vez enquanto o mapa é jogado. Caso contrário,
+     * lê inteiro o arquivo texto (.txt), como UTF-8.
+     */
+    private LevelSource readLevel( String name )
+            throws IOException {
+        
         String filename = "/recursos/mapas/" + name;
         
-        ArrayList< String > lines = new ArrayList< String >();
-        int width = 0;
-        int height = 0;
-        BufferedReader reader;
+        final URL compiled = getClass().getResource( filename + ".lvl" );
+        if ( compiled != null ) {
+            return LevelFile.openBinary( new CompiledLevel.Source() {
+                public InputStream open() throws IOException {
+                    return compiled.openStream();
+                }
+            });
+        }
+        
+        InputStream text = getClass().getResourceAsStream( filename + ".txt" );
+        if ( text == null ) {
+            throw new FileNotFoundException( filename );
+        }
         
+        BufferedReader reader = new BufferedReader( 
+                new InputStreamReader( text, "UTF-8" ) );
         try {
-            
-            reader = new BufferedReader( new InputStreamReader( 
-                    getClass().getResourceAsStream( filename ) ) );
-            
-            while ( true ) {
-                String line = reader.readLine();
-                // sem mais linhas para ler
-                if ( line == null ) {
-                    reader.close();
-                    break;
-                }
-                
-                // adiciona toda linha menos os comentários
-                if ( !line.startsWith( "#" ) ) {
-                    lines.add( line );
-                    width = Math.max( width, line.length() );
-                }
+            return LevelFile.readText( reader, 
+                    ( char ) ( 'A' + tiles.size() - 1 ), entities );
+        } finally {
+            reader.close();
+        }
+        
+    }
+    
+    
+    /**
+     * Registra as entidades do jogo com os símbolos que as representam nos
+     * arquivos de mapa. As sprites hospedeiras são criadas, com suas 
+     * imagens, somente quando uma fase que as usa é carregada.
+     */
+    private void registerEntities() {
+        
+        entities = new EntityRegistry();
+        
+        // itens
+        entities.register( 'o', new EntityRegistry.Factory() {
+            public Sprite create() {
+                return createCoinSprite();
+            }
+        });
+        entities.register( '!', new EntityRegistry.Factory() {
+            public Sprite create() {
+                return new PowerUp.Mushroom( 
+                        createPowerUpAnim( "mushroom.png" ) );
+            }
+        });
+        entities.register( 'f', new EntityRegistry.Factory() {
+            public Sprite create() {
+                return new PowerUp.FireFlower( 
+                        createPowerUpAnim( "fireFlower.png" ) );
+            }
+        });
+        entities.register( 'u', new EntityRegistry.Factory() {
+            public Sprite create() {
+                return new PowerUp.OneUp( createPowerUpAnim( "oneUp.png" ) );
+            }
+        });
+        entities.register( '*', new EntityRegistry.Factory() {
+            public Sprite create() {
+                return createGoalSprite();
+            }
+        });
+        
+        // inimigos
+        entities.register( '1', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "goomba", 2 );
+                return new Goomba( anim[ 0 ], anim[ 1 ], anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '2', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "flyGoomba", 2 );
+                return new FlyGoomba( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '3', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "greenKoopa", 2 );
+                return new GreenKoopa( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
             }
+        });
+        entities.register( '4', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "redKoopa", 2 );
+                return new RedKoopa( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '5', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "blueKoopa", 2 );
+                return new BlueKoopa( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '6', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "yellowKoopa", 2 );
+                return new YellowKoopa( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '7', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "bomb", 2 );
+                return new Bomb( anim[ 0 ], anim[ 1 ], anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '8', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "bullet", 1 );
+                return new Bullet( anim[ 0 ], anim[ 1 ], anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '9', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "bat", 2 );
+                return new Bat( anim[ 0 ], anim[ 1 ], anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '@', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "turtle", 2 );
+                return new Turtle( anim[ 0 ], anim[ 1 ], anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '$', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "mummyTurtle", 2 );
+                return new MummyTurtle( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        entities.register( '%', new EntityRegistry.Factory() {
+            public Sprite create() {
+                Animation[] anim = createCreatureAnims( "blueDragon", 2 );
+                return new BlueDragon( anim[ 0 ], anim[ 1 ], 
+                        anim[ 2 ], anim[ 3 ] );
+            }
+        });
+        
+    }
+    
+    
+    /**
+     * Cria as sprites hospedeiras das entidades usadas por uma fase que
+     * ainda não foram criadas, de forma que as imagens sejam carregadas 
+     * antes do jogo começar e não quando os chunks forem carregados.
+     */
+    private void createEntities( LevelSource level ) {
+        for ( char symbol : level.getEntitySymbols() ) {
+            entities.get( symbol );
+        }
+    }
+    
+    
+    /**
+     * Obtém o registro das entidades dos mapas. Novos tipos de entidade 
+     * podem ser registrados nele antes da carga dos mapas que os usam.
+     */
+    public EntityRegistry getEntityRegistry() {
+        return entities;
+    }
+    
+    
+    /**
+     * Classe interna privada que fornece os chunks de um mapa a partir do
+     * conteúdo original da fase, lendo um chunk por vez, e cria as 
+     * sprites das entidades do chunk que não foram removidas do mapa. Um 
+     * chunk que não pode ser lido fica vazio.
+     */
+    private class LevelChunkSource implements ChunkSource {
+        
+        private LevelSource level;
+        private ChunkContent content;
+        
+        LevelChunkSource( LevelSource level ) {
+            this.level = level;
+            content = new ChunkContent();
+        }
+        
+        public void loadChunk( TileMap map, int chunk ) {
             
-            // parseia as linhas para criar uma TileEngine
-            height = lines.size();
-            TileMap newMap = new TileMap( width, height );
+            try {
+                level.readChunk( chunk, content );
+            } catch ( IOException ex ) {
+                ex.printStackTrace();
+                return;
+            }
             
-            for ( int y = 0; y < height; y++ ) {
-                
-                String line = ( String ) lines.get( y );
-                for ( int x = 0; x < line.length(); x++ ) {
-                    char ch = line.charAt( x );
-                    
-                    // verifica o tile que o caracter atual representa
-                    int tile = ch - 'A';
-                    if ( tile >= 0 && tile < tiles.size() ) {
-                        newMap.setTile( x, y, ( Image ) tiles.get(tile) );
-                    }
-                    
-                    // checa se o caracter representa umaa sprite
-                    else if ( ch == 'o' ) {
-                        addSprite( newMap, coinSprite, x, y );
-                    } else if ( ch == '!' ) {
-                        addSprite( newMap, mushroomSprite, x, y );
-                    } else if ( ch == 'f' ) {
-                        addSprite( newMap, fireFlowerSprite, x, y );
-                    } else if ( ch == 'u' ) {
-                        addSprite( newMap, oneUpSprite, x, y );
-                    } else if ( ch == '*' ) {
-                        addSprite( newMap, goalSprite, x, y );
-                    } else if ( ch == '1' ) {
-                        addSprite( newMap, goombaSprite, x, y );
-                    } else if ( ch == '2' ) {
-                        addSprite( newMap, flyGoombaSprite, x, y );
-                    } else if ( ch == '3' ) {
-                        addSprite( newMap, greenKoopaSprite, x, y );
-                    } else if ( ch == '4' ) {
-                        addSprite( newMap, redKoopaSprite, x, y );
-                    } else if ( ch == '5' ) {
-                        addSprite( newMap, blueKoopaSprite, x, y );
-                    } else if ( ch == '6' ) {
-                        addSprite( newMap, yellowKoopaSprite, x, y );
-                    } else if ( ch == '7' ) {
-                        addSprite( newMap, bombSprite, x, y );
-                    } else if ( ch == '8' ) {
-                        addSprite( newMap, bulletSprite, x, y );
-                    } else if ( ch == '9' ) {
-                        addSprite( newMap, batSprite, x, y );
-                    } else if ( ch == '@' ) {
-                        addSprite( newMap, turtleSprite, x, y );
-                    } else if ( ch == '$' ) {
-                        addSprite( newMap, mummyTurtleSprite, x, y );
-                    } else if ( ch == '%' ) {
-                        addSprite( newMap, blueDragonSprite, x, y );
-                    }
-                    
-                    
+            map.shareChunkTiles( chunk, content.getTiles() );
+            for ( int i = 0; i < content.getEntityCount(); i++ ) {
+                int entity = content.getFirstEntity() + i;
+                if ( !map.isEntityRemoved( entity ) ) {
+                    addSprite( map, 
+                            entities.get( content.getEntitySymbol( i ) ),
+                            entity, content.getEntityX( i ), 
+                            content.getEntityY( i ) );
                 }
             }
             
-            // adiciona o jogador no mapa
-            Sprite player = ( Sprite ) playerSprite.clone();
-            player.setX( TileMapRenderer.tilesToPixels( 3 ) );
-            player.setY( 0 );
-            newMap.setPlayer( player );
-            return newMap;
-            
-        } catch ( FileNotFoundException ex ) {
-            ex.printStackTrace();
         }
         
-        return null;
     }
     
     
     /**
-     * Adiciona uma Sprite em uma mapa.
+     * Obtém a paleta dos mapas: a posição TileMap.EMPTY_TILE é vazia e as 
+     * seguintes são as imagens dos tiles, na ordem das letras.
+     */
+    private Image[] getTilePalette() {
+        
+        Image[] palette = new Image[ tiles.size() + 1 ];
+        for ( int i = 0; i < tiles.size(); i++ ) {
+            palette[ i + 1 ] = tiles.get( i );
+        }
+        
+        return palette;
+        
+    }
+    
+    
+    /**
+     * Adiciona em um mapa a Sprite da entidade da fase com o índice
+     * especificado.
      */
     private void addSprite( TileMap map,
-            Sprite hostSprite, int tileX, int tileY ) {
+            Sprite hostSprite, int entity, int tileX, int tileY ) {
         
         if ( hostSprite != null ) {
-            // clona a sprite usando a hospedeira
-            Sprite sprite = ( Sprite ) hostSprite.clone();
+            // reaproveita uma sprite ou clona a hospedeira
+            MapSprite sprite = ( MapSprite ) spritePool.obtain( hostSprite );
             
             // centraliza a sprite
             sprite.setX(
@@ -293,9 +676,10 @@ public class ResourceManager {
             sprite.setY(
                     TileMapRenderer.tilesToPixels( tileY + 1 ) -
                     sprite.getHeight() );
+            sprite.savePosition();
             
             // adiciona no mapa
-            map.addSprite(sprite);
+            map.addSprite( sprite, entity );
         }
     }
     
@@ -322,13 +706,19 @@ public class ResourceManager {
             
         }
         
+        // empacota as imagens no atlas, na ordem da paleta
+        tileRegions = new AtlasRegion[ tiles.size() + 1 ];
+        for ( int i = 0; i < tiles.size(); i++ ) {
+            tileRegions[ i + 1 ] = atlas.add( tiles.get( i ) );
+        }
+        
     }
     
     
     /**
-     * Carrega as sprites das criaturas.
+     * Carrega a sprite do jogador, que é usada por todas as fases.
      */
-    public void loadCreatureSprites() {
+    private void loadPlayerSprite() {
         
         // o número de linhas indica a quantidade de estados da sprite
         Image[][] imagensMario = new Image[ 2 ][];
@@ -336,20 +726,8 @@ public class ResourceManager {
         Image[][] imagensMarioPulando = new Image[ 2 ][];
         Image[][] imagensMarioMorrendo = new Image[ 2 ][];
         Image[][] imagensMarioAbaixado = new Image[ 2 ][];
-        Image[][] imagensFlyGoomba = new Image[ 4 ][];
-        Image[][] imagensGoomba = new Image[ 4 ][];
-        Image[][] imagensGreenKoopa = new Image[ 4 ][];
-        Image[][] imagensRedKoopa = new Image[ 4 ][];
-        Image[][] imagensBlueKoopa = new Image[ 4 ][];
-        Image[][] imagensYellowKoopa = new Image[ 4 ][];
-        Image[][] imagensBomb = new Image[ 4 ][];
-        Image[][] imagensBullet = new Image[ 4 ][];
-        Image[][] imagensBat = new Image[ 4 ][];
-        Image[][] imagensTurtle = new Image[ 4 ][];
-        Image[][] imagensMummyTurtle = new Image[ 4 ][];
-        Image[][] imagensBlueDragon = new Image[ 4 ][];
-        
-        // carrega imagens viradas à esquerda para o sonic
+        
+        // carrega imagens viradas à esquerda para o mario
         imagensMario[ 0 ] = new Image[] {
             loadImage( "mario1.png" )
         };
@@ -373,419 +751,88 @@ public class ResourceManager {
             loadImage( "marioDown1.png" )
         };
         
-        // carrega imagens viradas à esquerda para o flyGoomba
-        imagensFlyGoomba[ 0 ] = new Image[] {
-            loadImage( "flyGoomba1.png" ),
-            loadImage( "flyGoomba2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o goomba
-        imagensGoomba[ 0 ] = new Image[] {
-            loadImage( "goomba1.png" ),
-            loadImage( "goomba2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o green koopa
-        imagensGreenKoopa[ 0 ] = new Image[] {
-            loadImage( "greenKoopa1.png" ),
-            loadImage( "greenKoopa2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o red koopa
-        imagensRedKoopa[ 0 ] = new Image[] {
-            loadImage( "redKoopa1.png" ),
-            loadImage( "redKoopa2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o blue koopa
-        imagensBlueKoopa[ 0 ] = new Image[] {
-            loadImage( "blueKoopa1.png" ),
-            loadImage( "blueKoopa2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o yellow koopa
-        imagensYellowKoopa[ 0 ] = new Image[] {
-            loadImage( "yellowKoopa1.png" ),
-            loadImage( "yellowKoopa2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o bomb
-        imagensBomb[ 0 ] = new Image[] {
-            loadImage( "bomb1.png" ),
-            loadImage( "bomb2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o bullet
-        imagensBullet[ 0 ] = new Image[] {
-            loadImage( "bullet1.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o bat
-        imagensBat[ 0 ] = new Image[] {
-            loadImage( "bat1.png" ),
-            loadImage( "bat2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o turtle
-        imagensTurtle[ 0 ] = new Image[] {
-            loadImage( "turtle1.png" ),
-            loadImage( "turtle2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o mummy turtle
-        imagensMummyTurtle[ 0 ] = new Image[] {
-            loadImage( "mummyTurtle1.png" ),
-            loadImage( "mummyTurtle2.png" )
-        };
-        
-        // carrega imagens viradas à esquerda para o blue dragon
-        imagensBlueDragon[ 0 ] = new Image[] {
-            loadImage( "blueDragon1.png" ),
-            loadImage( "blueDragon2.png" )
-        };
-        
-        // para cada estado, cria um novo array com o tamanho da primeira linha
-        imagensMario[ 1 ] = new Image[ imagensMario[ 0 ].length ];
-        imagensMarioAndando[ 1 ] = new Image[ imagensMarioAndando[ 0 ].length ];
-        imagensMarioPulando[ 1 ] = new Image[ imagensMarioPulando[ 0 ].length ];
-        imagensMarioMorrendo[ 1 ] = new Image[ imagensMarioMorrendo[ 0 ].length ];
-        imagensMarioAbaixado[ 1 ] = new Image[ imagensMarioAbaixado[ 0 ].length ];
-        
-        imagensFlyGoomba[ 1 ] = new Image[ imagensFlyGoomba[ 0 ].length ];
-        imagensFlyGoomba[ 2 ] = new Image[ imagensFlyGoomba[ 0 ].length ];
-        imagensFlyGoomba[ 3 ] = new Image[ imagensFlyGoomba[ 0 ].length ];
-        
-        imagensGoomba[ 1 ] = new Image[ imagensGoomba[ 0 ].length ];
-        imagensGoomba[ 2 ] = new Image[ imagensGoomba[ 0 ].length ];
-        imagensGoomba[ 3 ] = new Image[ imagensGoomba[ 0 ].length ];
-        
-        imagensGreenKoopa[ 1 ] = new Image[ imagensGreenKoopa[ 0 ].length ];
-        imagensGreenKoopa[ 2 ] = new Image[ imagensGreenKoopa[ 0 ].length ];
-        imagensGreenKoopa[ 3 ] = new Image[ imagensGreenKoopa[ 0 ].length ];
-        
-        imagensRedKoopa[ 1 ] = new Image[ imagensRedKoopa[ 0 ].length ];
-        imagensRedKoopa[ 2 ] = new Image[ imagensRedKoopa[ 0 ].length ];
-        imagensRedKoopa[ 3 ] = new Image[ imagensRedKoopa[ 0 ].length ];
-        
-        imagensBlueKoopa[ 1 ] = new Image[ imagensBlueKoopa[ 0 ].length ];
-        imagensBlueKoopa[ 2 ] = new Image[ imagensBlueKoopa[ 0 ].length ];
-        imagensBlueKoopa[ 3 ] = new Image[ imagensBlueKoopa[ 0 ].length ];
-        
-        imagensYellowKoopa[ 1 ] = new Image[ imagensYellowKoopa[ 0 ].length ];
-        imagensYellowKoopa[ 2 ] = new Image[ imagensYellowKoopa[ 0 ].length ];
-        imagensYellowKoopa[ 3 ] = new Image[ imagensYellowKoopa[ 0 ].length ];
-        
-        imagensBomb[ 1 ] = new Image[ imagensBomb[ 0 ].length ];
-        imagensBomb[ 2 ] = new Image[ imagensBomb[ 0 ].length ];
-        imagensBomb[ 3 ] = new Image[ imagensBomb[ 0 ].length ];
-        
-        imagensBullet[ 1 ] = new Image[ imagensBullet[ 0 ].length ];
-        imagensBullet[ 2 ] = new Image[ imagensBullet[ 0 ].length ];
-        imagensBullet[ 3 ] = new Image[ imagensBullet[ 0 ].length ];
-        
-        imagensBat[ 1 ] = new Image[ imagensBat[ 0 ].length ];
-        imagensBat[ 2 ] = new Image[ imagensBat[ 0 ].length ];
-        imagensBat[ 3 ] = new Image[ imagensBat[ 0 ].length ];
-        
-        imagensTurtle[ 1 ] = new Image[ imagensTurtle[ 0 ].length ];
-        imagensTurtle[ 2 ] = new Image[ imagensTurtle[ 0 ].length ];
-        imagensTurtle[ 3 ] = new Image[ imagensTurtle[ 0 ].length ];
-        
-        imagensMummyTurtle[ 1 ] = new Image[ imagensMummyTurtle[ 0 ].length ];
-        imagensMummyTurtle[ 2 ] = new Image[ imagensMummyTurtle[ 0 ].length ];
-        imagensMummyTurtle[ 3 ] = new Image[ imagensMummyTurtle[ 0 ].length ];
-        
-        imagensBlueDragon[ 1 ] = new Image[ imagensBlueDragon[ 0 ].length ];
-        imagensBlueDragon[ 2 ] = new Image[ imagensBlueDragon[ 0 ].length ];
-        imagensBlueDragon[ 3 ] = new Image[ imagensBlueDragon[ 0 ].length ];
-        
-        // para cada coluna do array, configura as imagens correpondentes aos estados.
-        for ( int i = 0; i < imagensMario[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensMario[ 1 ][ i ] = getMirrorImage( imagensMario[ 0 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensMarioAndando[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensMarioAndando[ 1 ][ i ] = getMirrorImage( imagensMarioAndando[ 0 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensMarioPulando[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensMarioPulando[ 1 ][ i ] = getMirrorImage( imagensMarioPulando[ 0 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensMarioAndando[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensMarioAndando[ 1 ][ i ] = getMirrorImage( imagensMarioAndando[ 0 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensMarioMorrendo[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensMarioMorrendo[ 1 ][ i ] = getMirrorImage( imagensMarioMorrendo[ 0 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensMarioAbaixado[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensMarioAbaixado[ 1 ][ i ] = getMirrorImage( imagensMarioAbaixado[ 0 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensFlyGoomba[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensFlyGoomba[ 1 ][ i ] = getMirrorImage( imagensFlyGoomba[ 0 ][ i ] );
-            // imagens viradas à esquerda "mortas"
-            imagensFlyGoomba[ 2 ][ i ] = getSmashedImage( imagensFlyGoomba[ 0 ][ i ] );
-            // imagens viradas à direita "mortas"
-            imagensFlyGoomba[ 3 ][ i ] = getSmashedImage( imagensFlyGoomba[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensGoomba[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensGoomba[ 1 ][ i ] = getMirrorImage( imagensGoomba[ 0 ][ i ] );
-            // imagens viradas à esquerda "mortas"
-            imagensGoomba[ 2 ][ i ] = getSmashedImage( imagensGoomba[ 0 ][ i ] );
-            // imagens viradas à direita "mortas"
-            imagensGoomba[ 3 ][ i ] = getSmashedImage( imagensGoomba[ 1 ][ i ] );
+        // cria as imagens viradas à direita
+        imagensMario[ 1 ] = getMirrorImages( imagensMario[ 0 ] );
+        imagensMarioAndando[ 1 ] = getMirrorImages( imagensMarioAndando[ 0 ] );
+        imagensMarioPulando[ 1 ] = getMirrorImages( imagensMarioPulando[ 0 ] );
+        imagensMarioMorrendo[ 1 ] = getMirrorImages( imagensMarioMorrendo[ 0 ] );
+        imagensMarioAbaixado[ 1 ] = getMirrorImages( imagensMarioAbaixado[ 0 ] );
+        
+        // cria as animações, uma para cada estado
+        Animation[] playerAnim = new Animation[ 2 ];
+        Animation[] playerAnimAndando = new Animation[ 2 ];
+        Animation[] playerAnimPulando = new Animation[ 2 ];
+        Animation[] playerAnimMorrendo = new Animation[ 2 ];
+        Animation[] playerAnimAbaixado = new Animation[ 2 ];
+        
+        for ( int i = 0; i < 2; i++ ) {
+            playerAnim[ i ] = pack( createPlayerAnim( imagensMario[ i ] ) );
+            playerAnimAndando[ i ] = pack( 
+                    createPlayerAnimAndando( imagensMarioAndando[ i ] ) );
+            playerAnimPulando[ i ] = pack( 
+                    createPlayerAnimPulando( imagensMarioPulando[ i ] ) );
+            playerAnimMorrendo[ i ] = pack( 
+                    createPlayerAnimMorrendo( imagensMarioMorrendo[ i ] ) );
+            playerAnimAbaixado[ i ] = pack( 
+                    createPlayerAnimAbaixado( imagensMarioAbaixado[ i ] ) );
         }
         
-        for ( int i = 0; i < imagensGreenKoopa[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensGreenKoopa[ 1 ][ i ] = getMirrorImage( imagensGreenKoopa[ 0 ][ i ] );
-            // imagens viradas à esquerda "mortas"
-            imagensGreenKoopa[ 2 ][ i ] = getSmashedImage( imagensGreenKoopa[ 0 ][ i ] );
-            // imagens viradas à direita "mortas"
-            imagensGreenKoopa[ 3 ][ i ] = getSmashedImage( imagensGreenKoopa[ 1 ][ i ] );
-        }
+        playerSprite = new Player( playerAnim[ 0 ], playerAnim[ 1 ], 
+                playerAnimMorrendo[ 0 ], playerAnimMorrendo[ 1 ],
+                playerAnimAndando[ 0 ], playerAnimAndando[ 1 ],
+                playerAnimPulando[ 0 ], playerAnimPulando[ 1 ],
+                playerAnimAbaixado[ 0 ], playerAnimAbaixado[ 1 ] );
         
-        for ( int i = 0; i < imagensRedKoopa[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensRedKoopa[ 1 ][ i ] = getMirrorImage( imagensRedKoopa[ 0 ][ i ] );
-            // imagens viradas à esquerda "mortas"
-            imagensRedKoopa[ 2 ][ i ] = getSmashedImage( imagensRedKoopa[ 0 ][ i ] );
-            // imagens viradas à direita "mortas"
-            imagensRedKoopa[ 3 ][ i ] = getSmashedImage( imagensRedKoopa[ 1 ][ i ] );
-        }
+    }
+    
+    
+    /**
+     * Cria as animações de uma criatura a partir das imagens name1.png até
+     * name<frameCount>.png, viradas à esquerda. As animações são, na ordem:
+     * virada à esquerda, virada à direita, morta virada à esquerda e morta
+     * virada à direita.
+     */
+    private Animation[] createCreatureAnims( String name, int frameCount ) {
         
-        for ( int i = 0; i < imagensBlueKoopa[ 0 ].length; i++ ) {
-            // imagens viradas à direita
-            imagensBlueKoopa[ 1 ][ i ] = getMirrorImage( imagensBlueKoopa[ 0 ][ i ] );
-            // imagens viradas à esquerda "mortas"
-            imagensBlueKoopa[ 2 ][ i ] = getSmashedImage( imagensBlueKoopa[ 0 ][ i ] );
-            // imagens viradas à direita "mortas"
-            imagensBlueKoopa[ 3 ][ i ] = getSmashedImage( imagensBlueKoopa[ 1 ][ i ] );
-        }
+        // o número de linhas indica a quantidade de estados da sprite
+        Image[][] images = new Image[ 4 ][ frameCount ];
         
-        for ( int i = 0; i < imagensYellowKoopa[ 0 ].length; i++ ) {
+        for ( int i = 0; i < frameCount; i++ ) {
+            // imagens viradas à esquerda
+            images[ 0 ][ i ] = loadImage( name + ( i + 1 ) + ".png" );
             // imagens viradas à direita
-            imagensYellowKoopa[ 1 ][ i ] = getMirrorImage( imagensYellowKoopa[ 0 ][ i ] );
+            images[ 1 ][ i ] = getMirrorImage( images[ 0 ][ i ] );
             // imagens viradas à esquerda "mortas"
-            imagensYellowKoopa[ 2 ][ i ] = getSmashedImage( imagensYellowKoopa[ 0 ][ i ] );
+            images[ 2 ][ i ] = getSmashedImage( images[ 0 ][ i ] );
             // imagens viradas à direita "mortas"
-            imagensYellowKoopa[ 3 ][ i ] = getSmashedImage( imagensYellowKoopa[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensBomb[ 0 ].length; i++ ) {
-            // imagensBomb viradas à direita
-            imagensBomb[ 1 ][ i ] = getMirrorImage( imagensBomb[ 0 ][ i ] );
-            // imagensBomb viradas à esquerda "mortas"
-            imagensBomb[ 2 ][ i ] = getSmashedImage( imagensBomb[ 0 ][ i ] );
-            // imagensBomb viradas à direita "mortas"
-            imagensBomb[ 3 ][ i ] = getSmashedImage( imagensBomb[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensBullet[ 0 ].length; i++ ) {
-            // imagensBullet viradas à direita
-            imagensBullet[ 1 ][ i ] = getMirrorImage( imagensBullet[ 0 ][ i ] );
-            // imagensBullet viradas à esquerda "mortas"
-            imagensBullet[ 2 ][ i ] = getSmashedImage( imagensBullet[ 0 ][ i ] );
-            // imagensBullet viradas à direita "mortas"
-            imagensBullet[ 3 ][ i ] = getSmashedImage( imagensBullet[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensBat[ 0 ].length; i++ ) {
-            // imagensBat viradas à direita
-            imagensBat[ 1 ][ i ] = getMirrorImage( imagensBat[ 0 ][ i ] );
-            // imagensBat viradas à esquerda "mortas"
-            imagensBat[ 2 ][ i ] = getSmashedImage( imagensBat[ 0 ][ i ] );
-            // imagensBat viradas à direita "mortas"
-            imagensBat[ 3 ][ i ] = getSmashedImage( imagensBat[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensTurtle[ 0 ].length; i++ ) {
-            // imagensTurtle viradas à direita
-            imagensTurtle[ 1 ][ i ] = getMirrorImage( imagensTurtle[ 0 ][ i ] );
-            // imagensTurtle viradas à esquerda "mortas"
-            imagensTurtle[ 2 ][ i ] = getSmashedImage( imagensTurtle[ 0 ][ i ] );
-            // imagensTurtle viradas à direita "mortas"
-            imagensTurtle[ 3 ][ i ] = getSmashedImage( imagensTurtle[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensMummyTurtle[ 0 ].length; i++ ) {
-            // imagensMummyTurtle viradas à direita
-            imagensMummyTurtle[ 1 ][ i ] = getMirrorImage( imagensMummyTurtle[ 0 ][ i ] );
-            // imagensMummyTurtle viradas à esquerda "mortas"
-            imagensMummyTurtle[ 2 ][ i ] = getSmashedImage( imagensMummyTurtle[ 0 ][ i ] );
-            // imagensMummyTurtle viradas à direita "mortas"
-            imagensMummyTurtle[ 3 ][ i ] = getSmashedImage( imagensMummyTurtle[ 1 ][ i ] );
-        }
-        
-        for ( int i = 0; i < imagensBlueDragon[ 0 ].length; i++ ) {
-            // imagensBlueDragon viradas à direita
-            imagensBlueDragon[ 1 ][ i ] = getMirrorImage( imagensBlueDragon[ 0 ][ i ] );
-            // imagensBlueDragon viradas à esquerda "mortas"
-            imagensBlueDragon[ 2 ][ i ] = getSmashedImage( imagensBlueDragon[ 0 ][ i ] );
-            // imagensBlueDragon viradas à direita "mortas"
-            imagensBlueDragon[ 3 ][ i ] = getSmashedImage( imagensBlueDragon[ 1 ][ i ] );
+            images[ 3 ][ i ] = getSmashedImage( images[ 1 ][ i ] );
         }
         
-        
-        
-        // cria as animações das criaturas, baseado na quantidade de estados
-        Animation[] playerAnim = new Animation[ imagensMario.length ];
-        Animation[] playerAnimAndando = new Animation[ imagensMarioAndando.length ];
-        Animation[] playerAnimPulando = new Animation[ imagensMarioPulando.length ];
-        Animation[] playerAnimMorrendo = new Animation[ imagensMarioMorrendo.length ];
-        Animation[] playerAnimAbaixado = new Animation[ imagensMarioAbaixado.length ];
-        Animation[] flyGoombaAnim = new Animation[ imagensFlyGoomba.length ];
-        Animation[] goombaAnim = new Animation[ imagensGoomba.length ];
-        Animation[] greenKoopaAnim = new Animation[ imagensGreenKoopa.length ];
-        Animation[] redKoopaAnim = new Animation[ imagensRedKoopa.length ];
-        Animation[] blueKoopaAnim = new Animation[ imagensBlueKoopa.length ];
-        Animation[] yellowKoopaAnim = new Animation[ imagensYellowKoopa.length ];
-        Animation[] bombAnim = new Animation[ imagensBomb.length ];
-        Animation[] bulletAnim = new Animation[ imagensBullet.length ];
-        Animation[] batAnim = new Animation[ imagensBat.length ];
-        Animation[] turtleAnim = new Animation[ imagensTurtle.length ];
-        Animation[] mummyTurtleAnim = new Animation[ imagensMummyTurtle.length ];
-        Animation[] blueDragonAnim = new Animation[ imagensBlueDragon.length ];
-        
-        
-        // itera pela quantidade de estados, criando uma animação para cada um deles
-        for ( int i = 0; i < playerAnim.length; i++ ) {
-            playerAnim[ i ] = createPlayerAnim( imagensMario[ i ][ 0 ] );
-        }
-        
-        for ( int i = 0; i < playerAnimAndando.length; i++ ) {
-            playerAnimAndando[ i ] = createPlayerAnimAndando( imagensMarioAndando[ i ][ 0 ],
-                    imagensMarioAndando[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < playerAnimPulando.length; i++ ) {
-            playerAnimPulando[ i ] = createPlayerAnimPulando( imagensMarioPulando[ i ][ 0 ],
-                    imagensMarioPulando[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < playerAnimMorrendo.length; i++ ) {
-            playerAnimMorrendo[ i ] = createPlayerAnimMorrendo( imagensMarioMorrendo[ i ][ 0 ],
-                    imagensMarioMorrendo[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < playerAnimAbaixado.length; i++ ) {
-            playerAnimAbaixado[ i ] = createPlayerAnimAbaixado( imagensMarioAbaixado[ i ][ 0 ] );
-        }
-        
-        for ( int i = 0; i < flyGoombaAnim.length; i++ ) {
-            flyGoombaAnim[ i ] = createFlyGoombaAnim(
-                    imagensFlyGoomba[ i ][ 0 ], imagensFlyGoomba[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < goombaAnim.length; i++ ) {
-            goombaAnim[ i ] = createGoombaAnim(
-                    imagensGoomba[ i ][ 0 ], imagensGoomba[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < greenKoopaAnim.length; i++ ) {
-            greenKoopaAnim[ i ] = createGreenKoopaAnim(
-                    imagensGreenKoopa[ i ][ 0 ], imagensGreenKoopa[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < redKoopaAnim.length; i++ ) {
-            redKoopaAnim[ i ] = createRedKoopaAnim(
-                    imagensRedKoopa[ i ][ 0 ], imagensRedKoopa[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < blueKoopaAnim.length; i++ ) {
-            blueKoopaAnim[ i ] = createBlueKoopaAnim(
-                    imagensBlueKoopa[ i ][ 0 ], imagensBlueKoopa[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < yellowKoopaAnim.length; i++ ) {
-            yellowKoopaAnim[ i ] = createYellowKoopaAnim(
-                    imagensYellowKoopa[ i ][ 0 ], imagensYellowKoopa[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < bombAnim.length; i++ ) {
-            bombAnim[ i ] = createBombAnim(
-                    imagensBomb[ i ][ 0 ], imagensBomb[ i ][ 1 ] );
-        }
-        
-        for ( int i = 0; i < bulletAnim.length; i++ ) {
-            bulletAnim[ i ] = createBulletAnim(
-                    imagensBullet[ i ][ 0 ] );
-        }
-        
-        for ( int i = 0; i < batAnim.length; i++ ) {
-            batAnim[ i ] = createBatAnim(
-                    imagensBat[ i ][ 0 ], imagensBat[ i ][ 1 ] );
+        Animation[] anims = new Animation[ images.length ];
+        for ( int i = 0; i < anims.length; i++ ) {
+            anims[ i ] = new Animation();
+            for ( Image image : images[ i ] ) {
+                anims[ i ].addFrame( image, 200 );
+            }
+            pack( anims[ i ] );
         }
         
-        for ( int i = 0; i < turtleAnim.length; i++ ) {
-            turtleAnim[ i ] = createBatAnim(
-                    imagensTurtle[ i ][ 0 ], imagensTurtle[ i ][ 1 ] );
-        }
+        return anims;
         
-        for ( int i = 0; i < mummyTurtleAnim.length; i++ ) {
-            mummyTurtleAnim[ i ] = createBatAnim(
-                    imagensMummyTurtle[ i ][ 0 ], imagensMummyTurtle[ i ][ 1 ] );
-        }
+    }
+    
+    
+    /**
+     * Cria as imagens espelhadas de um array de imagens.
+     */
+    private Image[] getMirrorImages( Image[] images ) {
         
-        for ( int i = 0; i < blueDragonAnim.length; i++ ) {
-            blueDragonAnim[ i ] = createBatAnim(
-                    imagensBlueDragon[ i ][ 0 ], imagensBlueDragon[ i ][ 1 ] );
+        Image[] mirror = new Image[ images.length ];
+        for ( int i = 0; i < images.length; i++ ) {
+            mirror[ i ] = getMirrorImage( images[ i ] );
         }
         
-        // cria as sprites das criaturas, usando as animações criadas
-        playerSprite = new Player( playerAnim[ 0 ], playerAnim[ 1 ], 
-                playerAnimMorrendo[ 0 ], playerAnimMorrendo[ 1 ],
-                playerAnimAndando[ 0 ], playerAnimAndando[ 1 ],
-                playerAnimPulando[ 0 ], playerAnimPulando[ 1 ],
-                playerAnimAbaixado[ 0 ], playerAnimAbaixado[ 1 ] );
-        
-        flyGoombaSprite = new FlyGoomba( flyGoombaAnim[ 0 ], flyGoombaAnim[ 1 ],
-                flyGoombaAnim[ 2 ], flyGoombaAnim[ 3 ] );
-        
-        goombaSprite = new Goomba( goombaAnim[ 0 ], goombaAnim[ 1 ],
-                goombaAnim[ 2 ], goombaAnim[ 3 ] );
-        
-        greenKoopaSprite = new GreenKoopa( greenKoopaAnim[ 0 ], greenKoopaAnim[ 1 ],
-                greenKoopaAnim[ 2 ], greenKoopaAnim[ 3 ] );
-        
-        redKoopaSprite = new RedKoopa( redKoopaAnim[ 0 ], redKoopaAnim[ 1 ],
-                redKoopaAnim[ 2 ], redKoopaAnim[ 3 ] );
-        
-        blueKoopaSprite = new BlueKoopa( blueKoopaAnim[ 0 ], blueKoopaAnim[ 1 ],
-                blueKoopaAnim[ 2 ], blueKoopaAnim[ 3 ] );
-        
-        yellowKoopaSprite = new YellowKoopa( yellowKoopaAnim[ 0 ], yellowKoopaAnim[ 1 ],
-                yellowKoopaAnim[ 2 ], yellowKoopaAnim[ 3 ] );
-        
-        bombSprite = new Bomb( bombAnim[ 0 ], bombAnim[ 1 ],
-                bombAnim[ 2 ], bombAnim[ 3 ] );
-        
-        bulletSprite = new Bullet( bulletAnim[ 0 ], bulletAnim[ 1 ],
-                bulletAnim[ 2 ], bulletAnim[ 3 ] );
-        
-        batSprite = new Bat( batAnim[ 0 ], batAnim[ 1 ],
-                batAnim[ 2 ], batAnim[ 3 ] );
-        
-        turtleSprite = new Turtle( turtleAnim[ 0 ], turtleAnim[ 1 ],
-                turtleAnim[ 2 ], turtleAnim[ 3 ] );
-        
-        mummyTurtleSprite = new MummyTurtle( mummyTurtleAnim[ 0 ], mummyTurtleAnim[ 1 ],
-                mummyTurtleAnim[ 2 ], mummyTurtleAnim[ 3 ] );
-        
-        blueDragonSprite = new BlueDragon( blueDragonAnim[ 0 ], blueDragonAnim[ 1 ],
-                blueDragonAnim[ 2 ], blueDragonAnim[ 3 ] );
+        return mirror;
         
     }
     
@@ -841,169 +888,57 @@ public class ResourceManager {
     
     
     /**
-     * Cria a animação do FlyGoomba.
-     */
-    private Animation createFlyGoombaAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
-    
-    
-    /**
-     * Cria a animação do Goomba.
+     * Cria a sprite de finalização "goal".
      */
-    private Animation createGoombaAnim( Image... img ) {
+    private Sprite createGoalSprite() {
         Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
-    
-    /**
-     * Cria a animação do Green Koopa.
-     */
-    private Animation createGreenKoopaAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
-    
-    /**
-     * Cria a animação do Red Koopa.
-     */
-    private Animation createRedKoopaAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
-    
-    /**
-     * Cria a animação do Blue Koopa.
-     */
-    private Animation createBlueKoopaAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
-    
-    /**
-     * Cria a animação do Yellow Koopa.
-     */
-    private Animation createYellowKoopaAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
+        anim.addFrame( loadImage( "star1.png" ), 20 );
+        anim.addFrame( loadImage( "star2.png" ), 40 );
+        anim.addFrame( loadImage( "star3.png" ), 60 );
+        anim.addFrame( loadImage( "star4.png" ), 80 );
+        anim.addFrame( loadImage( "star5.png" ), 100 );
+        anim.addFrame( loadImage( "star6.png" ), 120 );
+        anim.addFrame( loadImage( "star7.png" ), 150 );
+        anim.addFrame( loadImage( "star6.png" ), 120 );
+        anim.addFrame( loadImage( "star5.png" ), 100 );
+        anim.addFrame( loadImage( "star4.png" ), 80 );
+        anim.addFrame( loadImage( "star3.png" ), 60 );
+        anim.addFrame( loadImage( "star2.png" ), 40 );
+        return new PowerUp.Goal( pack( anim ) );
     }
     
-    /**
-     * Cria a animação do Bomb.
-     */
-    private Animation createBombAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
     
     /**
-     * Cria a animação do Bullet.
+     * Cria a sprite de moeda.
      */
-    private Animation createBulletAnim( Image... img ) {
+    private Sprite createCoinSprite() {
         Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        return anim;
+        anim.addFrame( loadImage( "coin1.png" ), 100 );
+        anim.addFrame( loadImage( "coin2.png" ), 100 );
+        anim.addFrame( loadImage( "coin3.png" ), 100 );
+        anim.addFrame( loadImage( "coin4.png" ), 100 );
+        anim.addFrame( loadImage( "coin5.png" ), 100 );
+        return new PowerUp.Coin( pack( anim ) );
     }
     
-    /**
-     * Cria a animação do Bat.
-     */
-    private Animation createBatAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
     
     /**
-     * Cria a animação do Turtle.
+     * Cria a animação de um power up com uma única imagem.
      */
-    private Animation createTurtleAnim( Image... img ) {
+    private Animation createPowerUpAnim( String name ) {
         Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
+        anim.addFrame( loadImage( name ), 150 );
+        return pack( anim );
     }
     
-    /**
-     * Cria a animação do Mummy Turtle.
-     */
-    private Animation createMummyTurtleAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
-        return anim;
-    }
     
     /**
-     * Cria a animação do Blue Dragon.
+     * Empacota os quadros de uma animação no atlas, retornando a própria 
+     * animação.
      */
-    private Animation createBlueDragonAnim( Image... img ) {
-        Animation anim = new Animation();
-        anim.addFrame( img[ 0 ], 200 );
-        anim.addFrame( img[ 1 ], 200 );
+    private Animation pack( Animation anim ) {
+        anim.pack( atlas );
         return anim;
     }
     
-    /**
-     * Carrega as sprites de power up.
-     */
-    private void loadPowerUpSprites() {
-        
-        // cria a sprite de finalização "goal""
-        Animation anim = new Animation();
-        anim.addFrame( loadImage( "star1.png" ), 20 );
-        anim.addFrame( loadImage( "star2.png" ), 40 );
-        anim.addFrame( loadImage( "star3.png" ), 60 );
-        anim.addFrame( loadImage( "star4.png" ), 80 );
-        anim.addFrame( loadImage( "star5.png" ), 100 );
-        anim.addFrame( loadImage( "star6.png" ), 120 );
-        anim.addFrame( loadImage( "star7.png" ), 150 );
-        anim.addFrame( loadImage( "star6.png" ), 120 );
-        anim.addFrame( loadImage( "star5.png" ), 100 );
-        anim.addFrame( loadImage( "star4.png" ), 80 );
-        anim.addFrame( loadImage( "star3.png" ), 60 );
-        anim.addFrame( loadImage( "star2.png" ), 40 );
-        goalSprite = new PowerUp.Goal( anim );
-        
-        // cria a sprite de moeda
-        anim = new Animation();
-        anim.addFrame( loadImage( "coin1.png" ), 100 );
-        anim.addFrame( loadImage( "coin2.png" ), 100 );
-        anim.addFrame( loadImage( "coin3.png" ), 100 );
-        anim.addFrame( loadImage( "coin4.png" ), 100 );
-        anim.addFrame( loadImage( "coin5.png" ), 100 );
-        coinSprite = new PowerUp.Coin( anim );
-        
-        // cria a sprite do cogumelo
-        anim = new Animation();
-        anim.addFrame( loadImage( "mushroom.png" ), 150 );
-        mushroomSprite = new PowerUp.Mushroom( anim );
-        
-        // cria a sprite de vida
-        anim = new Animation();
-        anim.addFrame( loadImage( "oneUp.png" ), 150 );
-        oneUpSprite = new PowerUp.OneUp( anim );
-        
-        // cria a sprite fire flower
-        anim = new Animation();
-        anim.addFrame( loadImage( "fireFlower.png" ), 150 );
-        fireFlowerSprite = new PowerUp.FireFlower( anim );
-    }
-    
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package infraestrutura.util;
+
+import infraestrutura.grafico.Sprite;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.WeakHashMap;
+
+/**
+ * Um SpritePool guarda as Sprites que saíram do jogo, como criaturas mortas e
+ * moedas pegas, para que elas sejam reaproveitadas no lugar de novos clones
+ * das Sprites hospedeiras. As Sprites são separadas pela hospedeira de que
+ * foram clonadas, já que hospedeiras diferentes podem ser da mesma classe, e
+ * voltam ao estado inicial com reset() quando são reaproveitadas. Sprites
+ * que não foram clonadas por um SpritePool não são guardadas.
+ *
+ * <p>A hospedeira de cada clone fica em um WeakHashMap, para que os clones
+ * descartados pelo jogo sem serem liberados não fiquem presos no SpritePool.
+ *
+ * @author David Buzatto
+ */
+public class SpritePool {
+    
+    // quantidade máxima de Sprites guardadas de cada hospedeira
+    private static final int MAX_PER_HOST = 256;
+    
+    private IdentityHashMap< Sprite, ArrayList< Sprite > > free;
+    
+    // hospedeira de que cada Sprite foi clonada
+    private WeakHashMap< Sprite, Sprite > hosts;
+    
+    
+    /**
+     * Cria um novo SpritePool vazio.
+     */
+    public SpritePool() {
+        free = new IdentityHashMap< Sprite, ArrayList< Sprite > >();
+        hosts = new WeakHashMap< Sprite, Sprite >();
+    }
+    
+    
+    /**
+     * Obtém uma Sprite da hospedeira, reaproveitando uma Sprite guardada ou
+     * clonando a hospedeira quando não houver nenhuma.
+     */
+    public Sprite obtain( Sprite hostSprite ) {
+        
+        ArrayList< Sprite > list = free.get( hostSprite );
+        if ( list == null || list.isEmpty() ) {
+            Sprite sprite = ( Sprite ) hostSprite.clone();
+            hosts.put( sprite, hostSprite );
+            return sprite;
+        }
+        
+        Sprite sprite = list.remove( list.size() - 1 );
+        sprite.reset();
+        return sprite;
+        
+    }
+    
+    
+    /**
+     * Guarda uma Sprite para ser reaproveitada. A Sprite já deve ter sido
+     * removida do mapa e não pode mais ser usada por quem a liberou.
+     */
+    public void release( Sprite sprite ) {
+        
+        Sprite hostSprite = hosts.get( sprite );
+        if ( hostSprite == null ) {
+            return;
+        }
+        
+        ArrayList< Sprite > list = free.get( hostSprite );
+        if ( list == null ) {
+            list = new ArrayList< Sprite >();
+            free.put( hostSprite, list );
+        }
+        
+        if ( list.size() < MAX_PER_HOST ) {
+            list.add( sprite );
+        }
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de Sprites guardadas.
+     */
+    public int size() {
+        int size = 0;
+        for ( ArrayList< Sprite > list : free.values() ) {
+            size += list.size();
+        }
+        return size;
+    }
+    
+}
@@ -0,0 +1,464 @@
+package jogo;
+
+import infraestrutura.grafico.AnimationClip;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import jogo.sprites.Creature;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * A classe CreatureStore guarda criaturas simples em vetores paralelos
+ * (estrutura de vetores), ao invés de um objeto Creature por criatura.
+ * A gravidade, o movimento com colisão contra os tiles e a animação são
+ * feitos em laços sobre os vetores, o que permite simular dezenas de
+ * milhares de criaturas em fases de teste de carga.
+ *
+ * <p>Cada criatura pertence a um tipo, registrado com addKind() a partir de
+ * uma Creature hospedeira, que define suas animações, velocidade e se ela
+ * voa. As criaturas do CreatureStore não interagem com o jogador nem entre
+ * si: elas andam, caem, batem nos tiles e morrem quando kill() é chamado.
+ *
+ * @author David Buzatto
+ */
+public class CreatureStore {
+    
+    // animações de cada tipo
+    private static final int ANIM_LEFT = 0;
+    private static final int ANIM_RIGHT = 1;
+    private static final int ANIM_DEAD_LEFT = 2;
+    private static final int ANIM_DEAD_RIGHT = 3;
+    
+    // dados dos tipos
+    private AnimationClip[][] kindClips = new AnimationClip[ 4 ][];
+    private float[] kindMaxSpeed = new float[ 4 ];
+    private boolean[] kindFlying = new boolean[ 4 ];
+    private int kindCount;
+    
+    // dados das criaturas
+    private float[] x;
+    private float[] y;
+    private float[] velocityX;
+    private float[] velocityY;
+    private int[] width;
+    private int[] height;
+    private int[] kind;
+    private int[] state;
+    private long[] stateTime;
+    private int[] anim;
+    private long[] animTime;
+    private int size;
+    
+    
+    /**
+     * Cria um CreatureStore vazio com a capacidade inicial especificada.
+     */
+    public CreatureStore( int capacity ) {
+        capacity = Math.max( capacity, 1 );
+        x = new float[ capacity ];
+        y = new float[ capacity ];
+        velocityX = new float[ capacity ];
+        velocityY = new float[ capacity ];
+        width = new int[ capacity ];
+        height = new int[ capacity ];
+        kind = new int[ capacity ];
+        state = new int[ capacity ];
+        stateTime = new long[ capacity ];
+        anim = new int[ capacity ];
+        animTime = new long[ capacity ];
+    }
+    
+    
+    /**
+     * Registra um tipo de criatura usando as animações, a velocidade e o
+     * modo de voo da Creature hospedeira. Retorna o índice do tipo.
+     */
+    public int addKind( Creature host ) {
+        
+        if ( kindCount == kindClips.length ) {
+            kindClips = Arrays.copyOf( kindClips, kindCount * 2 );
+            kindMaxSpeed = Arrays.copyOf( kindMaxSpeed, kindCount * 2 );
+            kindFlying = Arrays.copyOf( kindFlying, kindCount * 2 );
+        }
+        
+        kindClips[ kindCount ] = new AnimationClip[] {
+            host.getLeft().getClip(),
+            host.getRight().getClip(),
+            host.getDeadLeft().getClip(),
+            host.getDeadRight().getClip()
+        };
+        kindMaxSpeed[ kindCount ] = host.getMaxSpeed();
+        kindFlying[ kindCount ] = host.isFlying();
+        
+        return kindCount++;
+        
+    }
+    
+    
+    /**
+     * Adiciona uma criatura do tipo especificado na posição especificada,
+     * já se movendo para a esquerda. Retorna o índice da criatura.
+     */
+    public int add( int kindIndex, float x, float y ) {
+        
+        if ( size == this.x.length ) {
+            grow();
+        }
+        
+        int i = size++;
+        this.x[ i ] = x;
+        this.y[ i ] = y;
+        velocityX[ i ] = -kindMaxSpeed[ kindIndex ];
+        velocityY[ i ] = 0;
+        kind[ i ] = kindIndex;
+        state[ i ] = Creature.STATE_NORMAL;
+        stateTime[ i ] = 0;
+        setAnim( i, ANIM_LEFT );
+        
+        return i;
+        
+    }
+    
+    
+    /**
+     * Remove uma criatura, colocando a última criatura em seu lugar. O
+     * índice da última criatura passa a ser o índice removido.
+     */
+    public void remove( int i ) {
+        
+        int last = --size;
+        x[ i ] = x[ last ];
+        y[ i ] = y[ last ];
+        velocityX[ i ] = velocityX[ last ];
+        velocityY[ i ] = velocityY[ last ];
+        width[ i ] = width[ last ];
+        height[ i ] = height[ last ];
+        kind[ i ] = kind[ last ];
+        state[ i ] = state[ last ];
+        stateTime[ i ] = stateTime[ last ];
+        anim[ i ] = anim[ last ];
+        animTime[ i ] = animTime[ last ];
+        
+    }
+    
+    
+    /**
+     * Começa a matar uma criatura, que é removida depois de
+     * Creature.DIE_TIME milisegundos.
+     */
+    public void kill( int i ) {
+        if ( state[ i ] == Creature.STATE_NORMAL ) {
+            state[ i ] = Creature.STATE_DYING;
+            stateTime[ i ] = 0;
+            velocityX[ i ] = 0;
+            velocityY[ i ] = 0;
+        }
+    }
+    
+    
+    /**
+     * Atualiza todas as criaturas: gravidade, movimento horizontal e
+     * vertical com colisão contra os tiles do mapa, animação e estado. As
+     * criaturas mortas são removidas.
+     */
+    public void update( long elapsedTime, TileMap map ) {
+        update( elapsedTime, map, 0, size );
+        removeDead();
+    }
+    
+    
+    /**
+     * Atualiza as criaturas do intervalo [from, to) sem removê-las. Cada
+     * criatura é atualizada independentemente das outras.
+     */
+    public void update( long elapsedTime, TileMap map, int from, int to ) {
+        applyGravity( elapsedTime, from, to );
+        moveHorizontally( elapsedTime, map, from, to );
+        moveVertically( elapsedTime, map, from, to );
+        updateAnimations( elapsedTime, from, to );
+    }
+    
+    
+    /**
+     * Aplica a gravidade nas criaturas que não estão voando.
+     */
+    private void applyGravity( long elapsedTime, int from, int to ) {
+        
+        float dv = GameManager.GRAVITY * elapsedTime;
+        
+        for ( int i = from; i < to; i++ ) {
+            if ( !kindFlying[ kind[ i ] ] ||
+                    state[ i ] != Creature.STATE_NORMAL ) {
+                velocityY[ i ] += dv;
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Move as criaturas horizontalmente, alinhando-as com a borda do
+     * primeiro tile em que colidem e invertendo sua direção.
+     */
+    private void moveHorizontally( long elapsedTime, TileMap map,
+            int from, int to ) {
+        
+        for ( int i = from; i < to; i++ ) {
+            
+            float dx = velocityX[ i ];
+            float newX = x[ i ] + dx * elapsedTime;
+            
+            int fromTileX = TileMapRenderer.pixelsToTiles(
+                    Math.min( x[ i ], newX ) );
+            int toTileX = TileMapRenderer.pixelsToTiles(
+                    Math.max( x[ i ], newX ) + width[ i ] - 1 );
+            int fromTileY = TileMapRenderer.pixelsToTiles( y[ i ] );
+            int toTileY = TileMapRenderer.pixelsToTiles(
+                    y[ i ] + height[ i ] - 1 );
+            
+            int tileX = findSolidColumn( map,
+                    fromTileX, toTileX, fromTileY, toTileY );
+            
+            if ( tileX == Integer.MIN_VALUE ) {
+                x[ i ] = newX;
+            } else {
+                if ( dx > 0 ) {
+                    x[ i ] = TileMapRenderer.tilesToPixels( tileX ) - width[ i ];
+                } else if ( dx < 0 ) {
+                    x[ i ] = TileMapRenderer.tilesToPixels( tileX + 1 );
+                }
+                velocityX[ i ] = -dx;
+            }
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Move as criaturas verticalmente, alinhando-as com a borda do primeiro
+     * tile em que colidem e zerando sua velocidade vertical.
+     */
+    private void moveVertically( long elapsedTime, TileMap map,
+            int from, int to ) {
+        
+        for ( int i = from; i < to; i++ ) {
+            
+            float dy = velocityY[ i ];
+            float newY = y[ i ] + dy * elapsedTime;
+            
+            int fromTileX = TileMapRenderer.pixelsToTiles( x[ i ] );
+            int toTileX = TileMapRenderer.pixelsToTiles(
+                    x[ i ] + width[ i ] - 1 );
+            int fromTileY = TileMapRenderer.pixelsToTiles(
+                    Math.min( y[ i ], newY ) );
+            int toTileY = TileMapRenderer.pixelsToTiles(
+                    Math.max( y[ i ], newY ) + height[ i ] - 1 );
+            
+            int tileY = findSolidRow( map,
+                    fromTileX, toTileX, fromTileY, toTileY );
+            
+            if ( tileY == Integer.MIN_VALUE ) {
+                y[ i ] = newY;
+            } else {
+                if ( dy > 0 ) {
+                    y[ i ] = TileMapRenderer.tilesToPixels( tileY ) - height[ i ];
+                } else if ( dy < 0 ) {
+                    y[ i ] = TileMapRenderer.tilesToPixels( tileY + 1 );
+                }
+                velocityY[ i ] = 0;
+            }
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Seleciona a animação de cada criatura, avança o tempo da animação e
+     * atualiza o estado de "morte", assim como Creature.update().
+     */
+    private void updateAnimations( long elapsedTime, int from, int to ) {
+        
+        for ( int i = from; i < to; i++ ) {
+            
+            int newAnim = anim[ i ] & 1;
+            if ( velocityX[ i ] < 0 ) {
+                newAnim = ANIM_LEFT;
+            } else if ( velocityX[ i ] > 0 ) {
+                newAnim = ANIM_RIGHT;
+            }
+            if ( state[ i ] == Creature.STATE_DYING ) {
+                newAnim += ANIM_DEAD_LEFT;
+            }
+            
+            if ( anim[ i ] != newAnim ) {
+                setAnim( i, newAnim );
+            } else {
+                animTime[ i ] += elapsedTime;
+            }
+            
+            stateTime[ i ] += elapsedTime;
+            if ( state[ i ] == Creature.STATE_DYING &&
+                    stateTime[ i ] >= Creature.DIE_TIME ) {
+                state[ i ] = Creature.STATE_DEAD;
+            }
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Remove as criaturas mortas.
+     */
+    public void removeDead() {
+        for ( int i = size - 1; i >= 0; i-- ) {
+            if ( state[ i ] == Creature.STATE_DEAD ) {
+                remove( i );
+            }
+        }
+    }
+    
+    
+    /**
+     * Desenha as criaturas cuja posição x está entre left e right (em pixels
+     * do mapa), aplicando os deslocamentos especificados.
+     */
+    public void draw( Graphics2D g, float left, float right,
+            int offsetX, int offsetY ) {
+        
+        for ( int i = 0; i < size; i++ ) {
+            
+            if ( x[ i ] + width[ i ] < left || x[ i ] >= right ) {
+                continue;
+            }
+            
+            AnimationClip clip = kindClips[ kind[ i ] ][ anim[ i ] ];
+            if ( clip.getFrameCount() == 0 ) {
+                continue;
+            }
+            
+            long totalDuration = clip.getTotalDuration();
+            int frame = totalDuration > 0 ?
+                    clip.getFrameIndex( animTime[ i ] % totalDuration ) : 0;
+            clip.drawFrame( g, frame,
+                    Math.round( x[ i ] ) + offsetX,
+                    Math.round( y[ i ] ) + offsetY );
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de criaturas.
+     */
+    public int size() {
+        return size;
+    }
+    
+    
+    /**
+     * Obtém a posição x de uma criatura.
+     */
+    public float getX( int i ) {
+        return x[ i ];
+    }
+    
+    
+    /**
+     * Obtém a posição y de uma criatura.
+     */
+    public float getY( int i ) {
+        return y[ i ];
+    }
+    
+    
+    /**
+     * Obtém a velocidade horizontal de uma criatura.
+     */
+    public float getVelocityX( int i ) {
+        return velocityX[ i ];
+    }
+    
+    
+    /**
+     * Obtém o estado de uma criatura.
+     */
+    public int getState( int i ) {
+        return state[ i ];
+    }
+    
+    
+    /**
+     * Troca a animação de uma criatura, reiniciando-a e atualizando o
+     * tamanho da criatura com o tamanho do primeiro quadro.
+     */
+    private void setAnim( int i, int newAnim ) {
+        
+        AnimationClip clip = kindClips[ kind[ i ] ][ newAnim ];
+        anim[ i ] = newAnim;
+        animTime[ i ] = 0;
+        
+        if ( clip.getFrameCount() > 0 ) {
+            width[ i ] = clip.getWidth( 0 );
+            height[ i ] = clip.getHeight( 0 );
+        }
+        
+    }
+    
+    
+    /**
+     * Aumenta a capacidade dos vetores.
+     */
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf( x, capacity );
+        y = Arrays.copyOf( y, capacity );
+        velocityX = Arrays.copyOf( velocityX, capacity );
+        velocityY = Arrays.copyOf( velocityY, capacity );
+        width = Arrays.copyOf( width, capacity );
+        height = Arrays.copyOf( height, capacity );
+        kind = Arrays.copyOf( kind, capacity );
+        state = Arrays.copyOf( state, capacity );
+        stateTime = Arrays.copyOf( stateTime, capacity );
+        anim = Arrays.copyOf( anim, capacity );
+        animTime = Arrays.copyOf( animTime, capacity );
+    }
+    
+    
+    /**
+     * Obtém a primeira coluna (percorrendo colunas e depois linhas) com um
+     * tile sólido na área especificada, ou Integer.MIN_VALUE se não houver.
+     */
+    private static int findSolidColumn( TileMap map, int fromTileX,
+            int toTileX, int fromTileY, int toTileY ) {
+        for ( int tileX = fromTileX; tileX <= toTileX; tileX++ ) {
+            for ( int tileY = fromTileY; tileY <= toTileY; tileY++ ) {
+                if ( map.isSolid( tileX, tileY ) ) {
+                    return tileX;
+                }
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+    
+    
+    /**
+     * Obtém a linha do primeiro tile sólido (percorrendo colunas e depois
+     * linhas) na área especificada, ou Integer.MIN_VALUE se não houver.
+     */
+    private static int findSolidRow( TileMap map, int fromTileX,
+            int toTileX, int fromTileY, int toTileY ) {
+        for ( int tileX = fromTileX; tileX <= toTileX; tileX++ ) {
+            for ( int tileY = fromTileY; tileY <= toTileY; tileY++ ) {
+                if ( map.isSolid( tileX, tileY ) ) {
+                    return tileY;
+                }
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+    
+}
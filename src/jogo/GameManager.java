@@ -1,13 +1,16 @@
 package jogo;
 
 import infraestrutura.core.GameCore;
+import infraestrutura.grafico.AtlasRegion;
 import infraestrutura.grafico.Sprite;
+import infraestrutura.grafico.TextureAtlas;
 import infraestrutura.input.GameAction;
 import infraestrutura.input.InputManager;
 import infraestrutura.som.EchoFilter;
 import infraestrutura.som.MidiPlayer;
 import infraestrutura.som.Sound;
 import infraestrutura.som.SoundManager;
+import infraestrutura.util.AssetLoader;
 import infraestrutura.util.ResourceManager;
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -15,13 +18,21 @@ import java.awt.Image;
 import java.awt.Point;
 import java.awt.RenderingHints;
 import java.awt.event.KeyEvent;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 import javax.sound.midi.Sequence;
 import javax.sound.midi.Sequencer;
 import javax.sound.sampled.AudioFormat;
 import jogo.sprites.Creature;
 import jogo.sprites.Player;
 import jogo.sprites.PowerUp;
+import jogo.tile.LevelSource;
+import jogo.tile.MapSprite;
 import jogo.tile.TileMap;
 import jogo.tile.TileMapRenderer;
 
@@ -46,8 +57,47 @@ public class GameManager extends GameCore {
     
     private static final int DRUM_TRACK = 1;
     
+    // quantidade de atualizações da simulação por segundo
+    private static final int UPDATE_RATE = 60;
+    
+    // distância, em tiles, além das bordas da tela em que as sprites 
+    // continuam sendo atualizadas. as mais distantes ficam congeladas
+    private static final int ACTIVE_MARGIN = 8;
+    
+    // largura da tela usada para calcular a região ativa sem tela
+    private static final int HEADLESS_SCREEN_WIDTH = 800;
+    
+    // quantidade de criaturas a partir da qual elas são movimentadas em 
+    // paralelo, e a quantidade mínima de criaturas por tarefa. o caminho
+    // paralelo não mostrou ganho medido nas fases do jogo, então só é
+    // usado com muitas criaturas, como no teste de carga
+    private static final int PARALLEL_THRESHOLD = 512;
+    private static final int PARALLEL_GRAIN = 128;
+    
+    // quantidade de threads que carregam os recursos na inicialização
+    private static final int ASSET_LOADER_THREADS = 
+            Math.max( 2, Runtime.getRuntime().availableProcessors() );
+    
+    // intervalo, em milisegundos, entre os quadros da tela de abertura
+    private static final int SPLASH_FRAME_TIME = 20;
+    
+    // propriedades do sistema que mantêm as páginas do atlas em 
+    // VolatileImages e que imprimem, ao final do jogo, quais imagens foram
+    // aceleradas (por exemplo, java -Djmario.imageReport=true ...)
+    private static final String VOLATILE_IMAGES_PROPERTY = 
+            "jmario.volatileImages";
+    private static final String IMAGE_REPORT_PROPERTY = "jmario.imageReport";
+    
     public static final float GRAVITY = 0.002f;
     
+    // ordena as criaturas pela posição x
+    private static final Comparator< Creature > X_ORDER = 
+            new Comparator< Creature >() {
+        public int compare( Creature c1, Creature c2 ) {
+            return Float.compare( c1.getX(), c2.getX() );
+        }
+    };
+    
     // indica se o jogo está pausado
     private boolean paused;
     
@@ -57,7 +107,24 @@ public class GameManager extends GameCore {
     // indica que o jogo terminou
     private boolean gameOver;
     
+    // indica que o jogo está sendo executado sem tela, sons ou entrada
+    private boolean headless;
+    
     private Point pointCache = new Point();
+    private ThreadLocal< Point > localPointCache = new ThreadLocal< Point >();
+    private ArrayList< Sprite > spriteCache = new ArrayList< Sprite >();
+    private ArrayList< MapSprite > activeSprites = new ArrayList< MapSprite >();
+    
+    // criaturas do teste de carga
+    private CreatureStore creatureStore;
+    
+    // criaturas ativas que serão movimentadas no quadro atual
+    private Creature[] movingCreatures = new Creature[ 64 ];
+    private int movingCount;
+    
+    // criaturas vivas do quadro atual, usadas na colisão entre criaturas
+    private Creature[] creatureCache = new Creature[ 64 ];
+    private int creatureCount;
     private TileMap map;
     private MidiPlayer midiPlayerMusica;
     private MidiPlayer midiPlayerMusicaFinalFase;
@@ -77,6 +144,19 @@ public class GameManager extends GameCore {
     private InputManager inputManager;
     private TileMapRenderer renderer;
     
+    // cargas das músicas, que terminam com o jogo já em andamento
+    private AssetLoader assetLoader;
+    private Future< MidiPlayer[] > cargaMidiPlayers;
+    private Future< Sequence > cargaMusica;
+    private Future< Sequence > cargaMusicaFinalFase;
+    private Future< Sequence > cargaMusicaGameOver;
+    
+    // cargas da próxima fase, feitas enquanto a fase atual termina
+    private AssetLoader levelLoader;
+    private Future< LevelSource > cargaProximaFase;
+    private Future< Image > cargaFundoProximaFase;
+    private Future< Sequence > cargaMusicaProximaFase;
+    
     // ações
     private GameAction moveLeft;
     private GameAction moveRight;
@@ -113,58 +193,269 @@ public class GameManager extends GameCore {
     private Image imagemInterfaceJogoFinalizado;
     private Image imagemInterfaceGameOver;
     private Image imagemInterfaceX;
-    private Image imagemInterface0;
-    private Image imagemInterface1;
-    private Image imagemInterface2;
-    private Image imagemInterface3;
-    private Image imagemInterface4;
-    private Image imagemInterface5;
-    private Image imagemInterface6;
-    private Image imagemInterface7;
-    private Image imagemInterface8;
-    private Image imagemInterface9;
+    
+    // dígitos da interface, empacotados no atlas
+    private AtlasRegion[] regioesNumeros;
     
     public void init() {
         
         super.init();
         
+        // usa passo fixo de simulação, deixando a física independente da 
+        // taxa de quadros
+        setUpdateRate( UPDATE_RATE );
+        setFixedTimeStep( true );
+        
         // assegura que os componentes Swing não irão "se pintar"
         //NullRepaintManager.install();
         
         // inicia o input manager
         initInput();
         
-        // configura como não pausado
-        setPaused( false );
+        // inicia o estado do jogo
+        initGameState();
         
-        // configura se é para ir para a próxima fase
-        setGoToNextLevel( false );
+        getImageConverter().setVolatileImagesEnabled( 
+                Boolean.getBoolean( VOLATILE_IMAGES_PROPERTY ) );
         
-        // configura que o jogo não terminou
-        setGameOver( false );
+        // carrega os recursos em paralelo, mostrando a tela de abertura
+        Image imagemSplash = loadImage( "splashScreen.png" );
+        assetLoader = new AssetLoader( ASSET_LOADER_THREADS );
+        
+        Future< ResourceManager > cargaResourceManager = assetLoader.load(
+                new Callable< ResourceManager >() {
+            public ResourceManager call() {
+                return new ResourceManager( getImageConverter(), 'Z', 
+                        assetLoader );
+            }
+        });
+        Future< Image > cargaFundo = loadImageAsync( 
+                "background" + quantidadeEstrelas + ".png" );
+        
+        // carrega os sons
+        soundManager = new SoundManager( PLAYBACK_FORMAT );
+        Future< Sound > cargaCoinSound = loadSoundAsync( "smw_coin.wav" );
+        Future< Sound > cargaStompSound = loadSoundAsync( "smw_stomp.wav" );
+        Future< Sound > cargaOneUpSound = loadSoundAsync( "smw_1-up.wav" );
+        Future< Sound > cargaDeathSound = loadSoundAsync( "smw_death.wav" );
+        Future< Sound > cargaJumpSound = loadSoundAsync( "smw_jump.wav" );
+        Future< Sound > cargaPowerUpSound = loadSoundAsync( "smw_powerup.wav" );
+        Future< Sound > cargaPowerDownSound = loadSoundAsync( "smw_powerdown.wav" );
+        
+        // carrega as imagens
+        Future< Image > cargaMario = loadImageAsync( "interfaceMario.png" );
+        Future< Image > cargaStar = loadImageAsync( "interfaceStar.png" );
+        Future< Image > cargaCoin = loadImageAsync( "interfaceCoin.png" );
+        Future< Image > cargaPontuacao = loadImageAsync( "interfacePontuacao.png" );
+        Future< Image > cargaTotal = loadImageAsync( "interfaceTotal.png" );
+        Future< Image > cargaPausa = loadImageAsync( "interfacePausa.png" );
+        Future< Image > cargaEstagioFinalizado = loadImageAsync( "interfaceEstagioFinalizado.png" );
+        Future< Image > cargaJogoFinalizado = loadImageAsync( "interfaceJogoFinalizado.png" );
+        Future< Image > cargaGameOver = loadImageAsync( "interfaceGameOver.png" );
+        Future< Image > cargaX = loadImageAsync( "interfaceX.png" );
+        ArrayList< Future< Image > > cargaNumeros = new ArrayList< Future< Image > >();
+        for ( int i = 0; i < 10; i++ ) {
+            cargaNumeros.add( loadImageAsync( "interface" + i + ".png" ) );
+        }
         
-        // inicia o resource manager
-        resourceManager = new ResourceManager(
-                screen.getFullScreenWindow().getGraphicsConfiguration(), 'Z' );
+        // aguarda os recursos necessários para iniciar a fase
+        while ( !assetLoader.isDone() ) {
+            drawSplashScreen( imagemSplash, assetLoader.getProgress() );
+            try {
+                Thread.sleep( SPLASH_FRAME_TIME );
+            } catch ( InterruptedException ex ) { }
+        }
         
-        // carrega os recursos
+        resourceManager = AssetLoader.get( cargaResourceManager );
         renderer = new TileMapRenderer();
-        renderer.setBackground(
-                resourceManager.loadImage( "background" + 
-                quantidadeEstrelas + ".png" ) );
+        renderer.setBackground( AssetLoader.get( cargaFundo ) );
         
         // carrega o primeiro mapa
         map = resourceManager.loadNextMap();
         
-        // carrega os sons
-        soundManager = new SoundManager( PLAYBACK_FORMAT );
-        coinSound = soundManager.getSound( "smw_coin.wav" );
-        stompSound = soundManager.getSound( "smw_stomp.wav" );
-        oneUpSound = soundManager.getSound( "smw_1-up.wav" );
-        deathSound = soundManager.getSound( "smw_death.wav" );
-        jumpSound = soundManager.getSound( "smw_jump.wav" );
-        powerUpSound = soundManager.getSound( "smw_powerup.wav" );
-        powerDownSound = soundManager.getSound( "smw_powerdown.wav" );
+        coinSound = AssetLoader.get( cargaCoinSound );
+        stompSound = AssetLoader.get( cargaStompSound );
+        oneUpSound = AssetLoader.get( cargaOneUpSound );
+        deathSound = AssetLoader.get( cargaDeathSound );
+        jumpSound = AssetLoader.get( cargaJumpSound );
+        powerUpSound = AssetLoader.get( cargaPowerUpSound );
+        powerDownSound = AssetLoader.get( cargaPowerDownSound );
+        
+        imagemInterfaceMario = AssetLoader.get( cargaMario );
+        imagemInterfaceStar = AssetLoader.get( cargaStar );
+        imagemInterfaceCoin = AssetLoader.get( cargaCoin );
+        imagemInterfacePontuacao = AssetLoader.get( cargaPontuacao );
+        imagemInterfaceTotal = AssetLoader.get( cargaTotal );
+        imagemInterfacePausa = AssetLoader.get( cargaPausa );
+        imagemInterfaceEstagioFinalizado = AssetLoader.get( cargaEstagioFinalizado );
+        imagemInterfaceJogoFinalizado = AssetLoader.get( cargaJogoFinalizado );
+        imagemInterfaceGameOver = AssetLoader.get( cargaGameOver );
+        imagemInterfaceX = AssetLoader.get( cargaX );
+        regioesNumeros = new AtlasRegion[ cargaNumeros.size() ];
+        for ( int i = 0; i < regioesNumeros.length; i++ ) {
+            regioesNumeros[ i ] = resourceManager.getAtlas().add(
+                    AssetLoader.get( cargaNumeros.get( i ) ) );
+        }
+        
+        // as músicas não são necessárias para iniciar a fase e terminam de
+        // ser carregadas com o jogo em andamento (veja checkMusicLoaded())
+        cargaMidiPlayers = assetLoader.load( new Callable< MidiPlayer[] >() {
+            public MidiPlayer[] call() {
+                return new MidiPlayer[] {
+                    new MidiPlayer(), new MidiPlayer(), new MidiPlayer()
+                };
+            }
+        });
+        cargaMusica = loadSequenceAsync( "music" + quantidadeEstrelas + ".midi" );
+        cargaMusicaFinalFase = loadSequenceAsync( "musicLevelEnd.midi" );
+        cargaMusicaGameOver = loadSequenceAsync( "musicGameOver.midi" );
+        
+    }
+    
+    
+    /**
+     * Requisita a carga de uma imagem ao AssetLoader.
+     */
+    private Future< Image > loadImageAsync( final String name ) {
+        return assetLoader.load( new Callable< Image >() {
+            public Image call() {
+                return loadImage( name );
+            }
+        });
+    }
+    
+    
+    /**
+     * Requisita a carga de um som ao AssetLoader.
+     */
+    private Future< Sound > loadSoundAsync( final String name ) {
+        return assetLoader.load( new Callable< Sound >() {
+            public Sound call() {
+                return soundManager.getSound( name );
+            }
+        });
+    }
+    
+    
+    /**
+     * Requisita a carga de uma seqüência midi ao AssetLoader.
+     */
+    private Future< Sequence > loadSequenceAsync( final String name ) {
+        return assetLoader.load( new Callable< Sequence >() {
+            public Sequence call() {
+                return MidiPlayer.loadSequence( name );
+            }
+        });
+    }
+    
+    
+    /**
+     * Quando as músicas terminarem de ser carregadas, guarda os players e as 
+     * seqüências, fecha o AssetLoader e começa a tocar a música da fase.
+     */
+    private void checkMusicLoaded() {
+        
+        if ( assetLoader == null || !assetLoader.isDone() ) {
+            return;
+        }
+        
+        MidiPlayer[] midiPlayers = AssetLoader.get( cargaMidiPlayers );
+        midiPlayerMusica = midiPlayers[ 0 ];
+        midiPlayerMusicaFinalFase = midiPlayers[ 1 ];
+        midiPlayerMusicaGameOver = midiPlayers[ 2 ];
+        
+        // a música pode ter sido trocada se a fase terminou antes
+        if ( musica == null ) {
+            musica = AssetLoader.get( cargaMusica );
+        }
+        musicaFinalFase = AssetLoader.get( cargaMusicaFinalFase );
+        musicaGameOver = AssetLoader.get( cargaMusicaGameOver );
+        
+        assetLoader.close();
+        assetLoader = null;
+        cargaMidiPlayers = null;
+        cargaMusica = null;
+        cargaMusicaFinalFase = null;
+        cargaMusicaGameOver = null;
+        
+        if ( !isGoToNextLevel() && !isGameOver() ) {
+            playMusic();
+        }
+        toggleDrumPlayback();
+        
+    }
+    
+    
+    /**
+     * Desenha a tela de abertura com uma barra mostrando o andamento da 
+     * carga dos recursos, de 0 a 1.
+     */
+    private void drawSplashScreen( Image imagemSplash, float progresso ) {
+        
+        Graphics2D g2d = screen.getGraphics();
+        
+        int largura = screen.getWidth();
+        int altura = screen.getHeight();
+        int larguraSplash = imagemSplash.getWidth( null );
+        int x = largura / 2 - larguraSplash / 2;
+        int y = altura / 2 - imagemSplash.getHeight( null ) / 2;
+        int yBarra = y + imagemSplash.getHeight( null ) + 20;
+        
+        g2d.setColor( Color.BLACK );
+        g2d.fillRect( 0, 0, largura, altura );
+        g2d.drawImage( imagemSplash, x, y, null );
+        
+        g2d.setColor( Color.WHITE );
+        g2d.drawRect( x, yBarra, larguraSplash - 1, 10 );
+        g2d.fillRect( x, yBarra, Math.round( larguraSplash * progresso ), 10 );
+        
+        g2d.dispose();
+        screen.update();
+        
+    }
+    
+    
+    /**
+     * Inicia o jogo sem tela cheia, sons, músicas ou teclado, permitindo que
+     * a lógica do jogo seja executada chamando update() diretamente (por
+     * exemplo, em um servidor sem monitor). As ações do jogo podem ser 
+     * acionadas através de getGameAction().
+     */
+    public void initHeadless() {
+        
+        headless = true;
+        
+        // cria as ações, sem mapeá-las no teclado
+        createGameActions();
+        
+        // inicia o estado do jogo
+        initGameState();
+        
+        // inicia o resource manager sem configuração gráfica
+        resourceManager = new ResourceManager( null, 'Z' );
+        
+        // carrega o primeiro mapa
+        map = resourceManager.loadNextMap();
+        
+        // sem animação de abertura
+        quadroAtualAbertura = quadrosAbertura;
+        
+    }
+    
+    
+    /**
+     * Inicia os contadores e indicadores de estado do jogo.
+     */
+    private void initGameState() {
+        
+        // configura como não pausado
+        setPaused( false );
+        
+        // configura se é para ir para a próxima fase
+        setGoToNextLevel( false );
+        
+        // configura que o jogo não terminou
+        setGameOver( false );
         
         // inicia os contadores do jogo
         quantidadeVidas = 5;
@@ -183,41 +474,6 @@ public class GameManager extends GameCore {
         quadrosGameOver = 120;
         quadroAtualGameOver = 0;
         
-        
-        // carrega as imagens
-        imagemInterfaceMario = resourceManager.loadImage( "interfaceMario.png" );
-        imagemInterfaceStar = resourceManager.loadImage( "interfaceStar.png" );
-        imagemInterfaceCoin = resourceManager.loadImage( "interfaceCoin.png" );
-        imagemInterfacePontuacao = resourceManager.loadImage( "interfacePontuacao.png" );
-        imagemInterfaceTotal = resourceManager.loadImage( "interfaceTotal.png" );
-        imagemInterfacePausa = resourceManager.loadImage( "interfacePausa.png" );
-        imagemInterfaceEstagioFinalizado = resourceManager.loadImage( "interfaceEstagioFinalizado.png" );
-        imagemInterfaceJogoFinalizado = resourceManager.loadImage( "interfaceJogoFinalizado.png" );
-        imagemInterfaceGameOver = resourceManager.loadImage( "interfaceGameOver.png" );
-        imagemInterfaceX = resourceManager.loadImage( "interfaceX.png" );
-        imagemInterface0 = resourceManager.loadImage( "interface0.png" );
-        imagemInterface1 = resourceManager.loadImage( "interface1.png" );
-        imagemInterface2 = resourceManager.loadImage( "interface2.png" );
-        imagemInterface3 = resourceManager.loadImage( "interface3.png" );
-        imagemInterface4 = resourceManager.loadImage( "interface4.png" );
-        imagemInterface5 = resourceManager.loadImage( "interface5.png" );
-        imagemInterface6 = resourceManager.loadImage( "interface6.png" );
-        imagemInterface7 = resourceManager.loadImage( "interface7.png" );
-        imagemInterface8 = resourceManager.loadImage( "interface8.png" );
-        imagemInterface9 = resourceManager.loadImage( "interface9.png" );
-        
-        // inicia a música
-        midiPlayerMusica = new MidiPlayer();
-        midiPlayerMusicaFinalFase = new MidiPlayer();
-        midiPlayerMusicaGameOver = new MidiPlayer();
-        musica = midiPlayerMusica.getSequence( "music" + 
-                quantidadeEstrelas + ".midi" );
-        musicaFinalFase = midiPlayerMusicaFinalFase.getSequence( "musicLevelEnd.midi" );
-        musicaGameOver = midiPlayerMusicaGameOver.getSequence( "musicGameOver.midi" );
-        
-        midiPlayerMusica.play( musica, true );
-        toggleDrumPlayback();
-        
     }
     
     
@@ -226,12 +482,62 @@ public class GameManager extends GameCore {
      */
     public void stop() {
         super.stop();
-        midiPlayerMusica.close();
-        soundManager.close();
+        if ( assetLoader != null ) {
+            assetLoader.close();
+        }
+        if ( midiPlayerMusica != null ) {
+            midiPlayerMusica.close();
+        }
+        if ( soundManager != null ) {
+            soundManager.close();
+        }
+        if ( getImageConverter() != null && 
+                Boolean.getBoolean( IMAGE_REPORT_PROPERTY ) ) {
+            System.out.print( getImageConverter().getReport() );
+            if ( resourceManager != null ) {
+                TextureAtlas atlas = resourceManager.getAtlas();
+                for ( int i = 0; i < atlas.getPageCount(); i++ ) {
+                    System.out.println( "página " + i + " do atlas " + 
+                            ( getImageConverter().isAccelerated( 
+                            atlas.getPage( i ) ) ? 
+                            "acelerada" : "não acelerada" ) );
+                }
+            }
+        }
     }
     
     
-    private void initInput() {
+    /**
+     * Verifica se o jogo está sendo executado sem tela, sons ou entrada.
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    
+    /**
+     * Obtém a ação do jogo com o nome especificado, ou null se não existir.
+     */
+    public GameAction getGameAction( String name ) {
+        
+        GameAction[] actions = { moveLeft, moveRight, moveDown, jump, 
+                exit, run, configAction, pause };
+        
+        for ( GameAction action : actions ) {
+            if ( action.getName().equals( name ) ) {
+                return action;
+            }
+        }
+        
+        return null;
+        
+    }
+    
+    
+    /**
+     * Cria as ações do jogo.
+     */
+    private void createGameActions() {
         
         moveLeft = new GameAction( "moveLeft" );
         moveRight = new GameAction( "moveRight" );
@@ -242,6 +548,13 @@ public class GameManager extends GameCore {
         configAction = new GameAction( "config", GameAction.DETECT_INITAL_PRESS_ONLY );
         pause = new GameAction("pause", GameAction.DETECT_INITAL_PRESS_ONLY );
         
+    }
+    
+    
+    private void initInput() {
+        
+        createGameActions();
+        
         inputManager = new InputManager( screen.getFullScreenWindow() );
         inputManager.setCursor( InputManager.INVISIBLE_CURSOR );
         
@@ -287,7 +600,7 @@ public class GameManager extends GameCore {
                 
                 // toca apenas se o jogador não estiver pulando
                 if ( !player.isPulando() )
-                    soundManager.play( jumpSound );
+                    playSound( jumpSound );
                 
                 player.jump( false );
                 
@@ -311,15 +624,11 @@ public class GameManager extends GameCore {
                 if ( isPaused() ) {
                     
                     // se o player não estiver pausado, pausa
-                    if ( !midiPlayerMusica.isPaused() ) {
-                        
-                        midiPlayerMusica.stop();
-                        
-                    }
+                    stopMusic();
                     
                 } else {
                     
-                        midiPlayerMusica.play( musica, true );
+                    playMusic();
                     
                 }
             }
@@ -337,8 +646,26 @@ public class GameManager extends GameCore {
     
     
     public void draw( Graphics2D g ) {
+        draw( g, 1 );
+    }
+    
+    
+    public void draw( Graphics2D g, float alpha ) {
         
-        renderer.draw( g, map, screen.getWidth(), screen.getHeight() );
+        // recria as páginas do atlas que perderam o conteúdo
+        resourceManager.getAtlas().validate();
+        
+        renderer.draw( g, map, screen.getWidth(), screen.getHeight(), alpha );
+        
+        // desenha as criaturas do teste de carga
+        if ( creatureStore != null ) {
+            int offsetX = TileMapRenderer.getOffsetX( map, screen.getWidth(),
+                    map.getPlayer().getInterpolatedX( alpha ) );
+            int offsetY = screen.getHeight() - 
+                    TileMapRenderer.tilesToPixels( map.getHeight() );
+            creatureStore.draw( g, -offsetX, -offsetX + screen.getWidth(),
+                    offsetX, offsetY );
+        }
         
         // desenha a interface gráfica
         drawInterface( g );
@@ -374,11 +701,43 @@ public class GameManager extends GameCore {
     }
     
     
+    /**
+     * Configura o mapa atual. Usado para executar mapas que não foram
+     * carregados pelo ResourceManager, por exemplo em benchmarks.
+     */
+    public void setMap( TileMap map ) {
+        this.map = map;
+    }
+    
+    
+    /**
+     * Obtém o CreatureStore com as criaturas do teste de carga, ou null se
+     * não houver nenhum.
+     */
+    public CreatureStore getCreatureStore() {
+        return creatureStore;
+    }
+    
+    
+    /**
+     * Configura um CreatureStore cujas criaturas são simuladas e desenhadas
+     * no mapa atual, além das sprites do mapa. Usado em fases de teste de 
+     * carga; null remove o CreatureStore.
+     */
+    public void setCreatureStore( CreatureStore creatureStore ) {
+        this.creatureStore = creatureStore;
+    }
+    
+    
     /**
      * Liga/desliga as baterias no midi (track1)
      */
     public void toggleDrumPlayback() {
         
+        if ( midiPlayerMusica == null ) {
+            return;
+        }
+        
         Sequencer sequencer = midiPlayerMusica.getSequencer();
         
         if ( sequencer != null ) {
@@ -397,6 +756,18 @@ public class GameManager extends GameCore {
      */
     public Point getTileCollision( Sprite sprite,
             float newX, float newY ) {
+        return getTileCollision( sprite, newX, newY, pointCache );
+    }
+    
+    
+    /**
+     * Obtém o tile que a Sprite colide, guardando sua localização em result.
+     * Retorna result, ou null se nenhuma colisão for detectada. Como não usa
+     * nenhum estado compartilhado, pode ser chamado por várias threads ao
+     * mesmo tempo, desde que cada uma use seu próprio result.
+     */
+    public Point getTileCollision( Sprite sprite,
+            float newX, float newY, Point result ) {
         
         float fromX = Math.min( sprite.getX(), newX );
         float fromY = Math.min( sprite.getY(), newY );
@@ -416,11 +787,10 @@ public class GameManager extends GameCore {
             
             for ( int y = fromTileY; y <= toTileY; y++ ) {
                 
-                if ( x < 0 || x >= map.getWidth() ||
-                        map.getTile( x, y ) != null ) {
+                if ( map.isSolid( x, y ) ) {
                     // colisão achada, retorna o tile
-                    pointCache.setLocation( x, y );
-                    return pointCache;
+                    result.setLocation( x, y );
+                    return result;
                 }
                 
             }
@@ -453,17 +823,17 @@ public class GameManager extends GameCore {
             return false;
         }
         
-        // obtem a localização em pixel das sprites
-        int s1x = Math.round( s1.getX() );
-        int s1y = Math.round( s1.getY() );
-        int s2x = Math.round( s2.getX() );
-        int s2y = Math.round( s2.getY() );
-        
-        // verifica se as bordas das sprites se interceptam
-        return ( s1x < s2x + s2.getWidth() &&
-                s2x < s1x + s1.getWidth() &&
-                s1y < s2y + s2.getHeight() &&
-                s2y < s1y + s1.getHeight() );
+        // obtem a localização em pixel das caixas de colisão das sprites
+        int s1x = Math.round( s1.getHitboxX() );
+        int s1y = Math.round( s1.getHitboxY() );
+        int s2x = Math.round( s2.getHitboxX() );
+        int s2y = Math.round( s2.getHitboxY() );
+        
+        // verifica se as caixas de colisão das sprites se interceptam
+        return ( s1x < s2x + s2.getHitboxWidth() &&
+                s2x < s1x + s1.getHitboxWidth() &&
+                s1y < s2y + s2.getHitboxHeight() &&
+                s2y < s1y + s1.getHitboxHeight() );
     }
     
     
@@ -473,12 +843,15 @@ public class GameManager extends GameCore {
      */
     public Sprite getSpriteCollision(Sprite sprite) {
         
-        // itera pela lista de sprites
-        Iterator i = map.getSprites();
+        // obtém do índice espacial somente as sprites próximas (com um pixel
+        // de margem, pois isCollision() arredonda as posições)
+        spriteCache.clear();
+        map.getSprites( sprite.getX() - 1, sprite.getY() - 1, 
+                sprite.getWidth() + 2, sprite.getHeight() + 2, spriteCache );
         
-        while ( i.hasNext() ) {
+        for ( int i = 0; i < spriteCache.size(); i++ ) {
             
-            Sprite otherSprite = ( Sprite ) i.next();
+            Sprite otherSprite = spriteCache.get( i );
             
             if ( isCollision( sprite, otherSprite ) ) {
                 
@@ -500,6 +873,9 @@ public class GameManager extends GameCore {
      */
     public void update( long elapsedTime ) {       
         
+        // instala as músicas assim que terminarem de ser carregadas
+        checkMusicLoaded();
+        
         Creature player = ( Creature ) map.getPlayer();
         
         // jogador está morto, reinicia o mapa
@@ -515,11 +891,12 @@ public class GameManager extends GameCore {
                 // prepara abertura
                 quadroAtualAbertura = 0;
                 
-                // recarrega o mapa atual
+                // recarrega o mapa atual, reaproveitando as sprites do antigo
+                resourceManager.releaseMap( map );
                 map = resourceManager.reloadMap();
                 
                 // reinicia o som
-                midiPlayerMusica.play( musica, true );
+                playMusic();
                 
                 // reseta os contadores de pontuação
                 quantidadeCoins = 0;
@@ -534,37 +911,232 @@ public class GameManager extends GameCore {
         // verifica a entrada do teclado/mouse
         checkInput( elapsedTime );
         
+        // sem tela, a transferência de pontos é feita imediatamente
+        if ( isHeadless() && isGoToNextLevel() ) {
+            quantidadePontos += quantidadePontosFase;
+            quantidadePontosFase = 0;
+            loadNextLevel();
+        }
+        
         // verifica se está pausado
         if ( !isPaused() && !isGoToNextLevel() ) {
             
+            // região visível da tela, em pixels do mapa
+            int screenWidth = isHeadless() ? 
+                    HEADLESS_SCREEN_WIDTH : screen.getWidth();
+            int screenLeft = -TileMapRenderer.getOffsetX( 
+                    map, screenWidth, player.getX() );
+            int screenRight = screenLeft + screenWidth;
+            
+            // região ativa: a tela mais uma margem de cada lado
+            int firstActiveTileX = 
+                    TileMapRenderer.pixelsToTiles( screenLeft ) - ACTIVE_MARGIN;
+            int lastActiveTileX = 
+                    TileMapRenderer.pixelsToTiles( screenRight ) + ACTIVE_MARGIN;
+            
+            // carrega os chunks próximos da região ativa e descarta os 
+            // distantes
+            map.updateLoadedChunks( firstActiveTileX, lastActiveTileX );
+            
             // atualiza o jogador
+            player.savePosition();
             updateCreature( player, elapsedTime );
             player.update( elapsedTime );
             
-            // atualiza as outras sprites
-            Iterator i = map.getSprites();
+            // obtém as sprites da região ativa, em qualquer altura. as que 
+            // estão fora dela ficam congeladas até a região alcançá-las
+            int mapHeight = TileMapRenderer.tilesToPixels( map.getHeight() );
+            map.getSprites( TileMapRenderer.tilesToPixels( firstActiveTileX ),
+                    -mapHeight, TileMapRenderer.tilesToPixels( 
+                    lastActiveTileX - firstActiveTileX + 1 ),
+                    mapHeight * 3, activeSprites );
             
-            while ( i.hasNext() ) {
+            // prepara as sprites ativas, removendo as criaturas mortas e
+            // separando as criaturas que serão movimentadas
+            movingCount = 0;
+            
+            for ( int i = 0; i < activeSprites.size(); i++ ) {
                 
-                Sprite sprite = ( Sprite )i.next();
+                MapSprite sprite = activeSprites.get( i );
+                sprite.savePosition();
                 
                 if ( sprite instanceof Creature ) {
                     
                     Creature creature = ( Creature ) sprite;
                     
+                    // acorda a criatura quando a mesma estiver na tela
+                    if ( sprite.getX() >= screenLeft && 
+                            sprite.getX() < screenRight ) {
+                        creature.wakeUp();
+                    }
+                    
                     if ( creature.getState() == Creature.STATE_DEAD ) {
-                        i.remove();
+                        map.removeSprite( creature );
+                        releaseSprite( creature );
+                        activeSprites.set( i, null );
                     } else {
-                        updateCreature( creature, elapsedTime );
+                        addMovingCreature( creature );
                     }
                     
                 }
                 
-                // atualização normal
-                sprite.update( elapsedTime );
+            }
+            
+            // movimenta as criaturas e atualiza suas animações. cada criatura
+            // só depende de si mesma e do mapa, então isso pode ser feito em
+            // paralelo quando há muitas criaturas
+            if ( movingCount >= PARALLEL_THRESHOLD ) {
+                ForkJoinPool.commonPool().invoke( 
+                        new CreatureTask( 0, movingCount, elapsedTime ) );
+            } else {
+                updateMovingCreatures( 0, movingCount, elapsedTime, 
+                        pointCache );
+            }
+            
+            // junta os resultados na thread do jogo, na ordem das sprites
+            creatureCount = 0;
+            
+            for ( int i = 0; i < activeSprites.size(); i++ ) {
+                
+                MapSprite sprite = activeSprites.get( i );
+                if ( sprite == null ) {
+                    continue;
+                }
+                
+                if ( sprite instanceof Creature ) {
+                    if ( ( ( Creature ) sprite ).isAlive() ) {
+                        addCreatureToCache( ( Creature ) sprite );
+                    }
+                } else {
+                    // atualização normal
+                    sprite.update( elapsedTime );
+                }
+                
+                // atualiza o índice espacial
+                map.moveSprite( sprite );
                 
             }
             
+            activeSprites.clear();
+            Arrays.fill( movingCreatures, 0, movingCount, null );
+            
+            // atualiza as criaturas do teste de carga
+            if ( creatureStore != null ) {
+                if ( creatureStore.size() >= PARALLEL_THRESHOLD ) {
+                    ForkJoinPool.commonPool().invoke( new CreatureStoreTask(
+                            0, creatureStore.size(), elapsedTime ) );
+                    creatureStore.removeDead();
+                } else {
+                    creatureStore.update( elapsedTime, map );
+                }
+            }
+            
+            // verifica a colisão das criaturas entre si
+            checkCreatureCollisions();
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Adiciona uma criatura na lista das criaturas que serão movimentadas.
+     */
+    private void addMovingCreature( Creature creature ) {
+        if ( movingCount == movingCreatures.length ) {
+            movingCreatures = Arrays.copyOf( movingCreatures, movingCount * 2 );
+        }
+        movingCreatures[ movingCount++ ] = creature;
+    }
+    
+    
+    /**
+     * Movimenta e atualiza as criaturas do intervalo [from, to) da lista 
+     * das criaturas que serão movimentadas.
+     */
+    private void updateMovingCreatures( int from, int to, long elapsedTime,
+            Point tileCache ) {
+        for ( int i = from; i < to; i++ ) {
+            Creature creature = movingCreatures[ i ];
+            updateCreature( creature, elapsedTime, tileCache );
+            creature.update( elapsedTime );
+        }
+    }
+    
+    
+    /**
+     * Obtém o Point de cache da thread atual, criando-o no primeiro uso, para
+     * que as tarefas executadas em paralelo não compartilhem o mesmo Point.
+     */
+    private Point getLocalPointCache() {
+        Point point = localPointCache.get();
+        if ( point == null ) {
+            point = new Point();
+            localPointCache.set( point );
+        }
+        return point;
+    }
+    
+    
+    /**
+     * Classe interna privada que movimenta um intervalo das criaturas em um
+     * ForkJoinPool, dividindo-o até PARALLEL_GRAIN criaturas.
+     */
+    private class CreatureTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private int from;
+        private int to;
+        private long elapsedTime;
+        
+        CreatureTask( int from, int to, long elapsedTime ) {
+            this.from = from;
+            this.to = to;
+            this.elapsedTime = elapsedTime;
+        }
+        
+        protected void compute() {
+            if ( to - from <= PARALLEL_GRAIN ) {
+                updateMovingCreatures( from, to, elapsedTime, 
+                        getLocalPointCache() );
+            } else {
+                int middle = ( from + to ) >>> 1;
+                invokeAll( new CreatureTask( from, middle, elapsedTime ),
+                        new CreatureTask( middle, to, elapsedTime ) );
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Classe interna privada que atualiza um intervalo das criaturas do
+     * CreatureStore em um ForkJoinPool, dividindo-o até PARALLEL_GRAIN 
+     * criaturas.
+     */
+    private class CreatureStoreTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private int from;
+        private int to;
+        private long elapsedTime;
+        
+        CreatureStoreTask( int from, int to, long elapsedTime ) {
+            this.from = from;
+            this.to = to;
+            this.elapsedTime = elapsedTime;
+        }
+        
+        protected void compute() {
+            if ( to - from <= PARALLEL_GRAIN ) {
+                creatureStore.update( elapsedTime, map, from, to );
+            } else {
+                int middle = ( from + to ) >>> 1;
+                invokeAll( new CreatureStoreTask( from, middle, elapsedTime ),
+                        new CreatureStoreTask( middle, to, elapsedTime ) );
+            }
         }
         
     }
@@ -575,6 +1147,17 @@ public class GameManager extends GameCore {
      * voando e verifica colisão.
      */
     private void updateCreature( Creature creature, long elapsedTime ) {
+        updateCreature( creature, elapsedTime, pointCache );
+    }
+    
+    
+    /**
+     * Atualiza uma criatura usando tileCache para guardar os tiles de 
+     * colisão. Para criaturas que não são o jogador, só altera a própria
+     * criatura, podendo ser chamado em paralelo com tileCaches diferentes.
+     */
+    private void updateCreature( Creature creature, long elapsedTime,
+            Point tileCache ) {
         
         // usa gravidade
         if ( !creature.isFlying() ) {
@@ -586,7 +1169,8 @@ public class GameManager extends GameCore {
         float dx = creature.getVelocityX();
         float oldX = creature.getX();
         float newX = oldX + dx * elapsedTime;
-        Point tile = getTileCollision( creature, newX, creature.getY() );
+        Point tile = getTileCollision( creature, newX, creature.getY(),
+                tileCache );
         
         if ( tile == null ) {
             creature.setX( newX );
@@ -612,7 +1196,7 @@ public class GameManager extends GameCore {
         float dy = creature.getVelocityY();
         float oldY = creature.getY();
         float newY = oldY + dy * elapsedTime;
-        tile = getTileCollision( creature, creature.getX(), newY );
+        tile = getTileCollision( creature, creature.getX(), newY, tileCache );
         
         if ( tile == null ) {
             creature.setY( newY );
@@ -641,21 +1225,23 @@ public class GameManager extends GameCore {
                 
                 // se tem vidas
                 if ( quantidadeVidas != 0 ) {
-                    
+
                     // pára a música
-                    midiPlayerMusica.stop();
+                    stopMusic();
 
                     // reproduz o som
-                    soundManager.play( deathSound );
+                    playSound( deathSound );
 
                     creature.setState( creature.STATE_DEAD );
 
                     quantidadeVidas--;
-
+                    
                     // dorme por 4 segundos para esperar a música ser reproduzida
-                    try {
-                        Thread.sleep( 4000 );
-                    } catch ( InterruptedException exc ) { }
+                    if ( !isHeadless() ) {
+                        try {
+                            Thread.sleep( 4000 );
+                        } catch ( InterruptedException exc ) { }
+                    }
                     
                 }
                 
@@ -669,6 +1255,64 @@ public class GameManager extends GameCore {
     }
     
     
+    /**
+     * Adiciona uma criatura no cache de criaturas do quadro atual.
+     */
+    private void addCreatureToCache( Creature creature ) {
+        
+        if ( creatureCount == creatureCache.length ) {
+            creatureCache = Arrays.copyOf( creatureCache, creatureCount * 2 );
+        }
+        
+        creatureCache[ creatureCount++ ] = creature;
+        
+    }
+    
+    
+    /**
+     * Verifica colisão entre as criaturas do quadro atual, fazendo com que
+     * as criaturas que colidem voltem. Usa "sort and sweep" no eixo x: as
+     * criaturas são ordenadas pela posição x e cada uma é testada somente com
+     * as seguintes cuja posição x começa antes do seu final, evitando testar
+     * todos os pares.
+     */
+    private void checkCreatureCollisions() {
+        
+        Arrays.sort( creatureCache, 0, creatureCount, X_ORDER );
+        
+        for ( int i = 0; i < creatureCount; i++ ) {
+            
+            Creature c1 = creatureCache[ i ];
+            float right = c1.getX() + c1.getWidth();
+            
+            for ( int j = i + 1; j < creatureCount && 
+                    creatureCache[ j ].getX() < right; j++ ) {
+                
+                Creature c2 = creatureCache[ j ];
+                
+                if ( isCollision( c1, c2 ) ) {
+                    
+                    // c1 está à esquerda de c2, então somente as criaturas
+                    // que se movem em direção à outra voltam
+                    if ( c1.getVelocityX() > 0 ) {
+                        c1.collideHorizontal();
+                    }
+                    if ( c2.getVelocityX() < 0 ) {
+                        c2.collideHorizontal();
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+        // não mantém referências para as criaturas
+        Arrays.fill( creatureCache, 0, creatureCount, null );
+        
+    }
+    
+    
     /**
      * Verifica colisão entre o jogador e outras sprites. If canKill é true,
      * a colisão com as criaturas irá matá-las.
@@ -694,7 +1338,7 @@ public class GameManager extends GameCore {
             if ( canKill ) {
                 
                 // mata o inimigo a faz o jogador oscilar
-                soundManager.play( stompSound );
+                playSound( stompSound );
                 
                 badguy.setState( Creature.STATE_DYING );
                 
@@ -713,10 +1357,10 @@ public class GameManager extends GameCore {
                 quantidadeVidas--;
                 
                 // pára a música
-                midiPlayerMusica.stop();
+                stopMusic();
                 
                 // reproduz o som
-                soundManager.play( deathSound );
+                playSound( deathSound );
                 
                 // prepara fechamento
                 // quadroAtualFechamento = 0;
@@ -728,6 +1372,17 @@ public class GameManager extends GameCore {
     }
     
     
+    /**
+     * Libera uma sprite removida do mapa para que o ResourceManager a 
+     * reaproveite.
+     */
+    private void releaseSprite( Sprite sprite ) {
+        if ( resourceManager != null ) {
+            resourceManager.releaseSprite( sprite );
+        }
+    }
+    
+    
     /**
      * Dá ao jogador o powerUp especificado e remove o mesmo do mapa.
      */
@@ -735,6 +1390,7 @@ public class GameManager extends GameCore {
         
         // remove do mapa
         map.removeSprite( powerUp );
+        releaseSprite( powerUp );
         
         if ( powerUp instanceof PowerUp.Coin ) {
             
@@ -745,7 +1401,7 @@ public class GameManager extends GameCore {
             quantidadeCoins += 1;
             
             // reproduz o som
-            soundManager.play( coinSound );
+            playSound( coinSound );
             
             // se tiver uma quantidade múltipla de 100
             if ( quantidadeCoins % 100 == 0 ) {
@@ -754,7 +1410,7 @@ public class GameManager extends GameCore {
                 quantidadeVidas++;
                 
                 // reproduz o som
-                soundManager.play( oneUpSound );
+                playSound( oneUpSound );
                 
             }
             
@@ -762,12 +1418,12 @@ public class GameManager extends GameCore {
             
             // soma 1000 pontos
             quantidadePontosFase += 1000;
-            
+                
             // altera a música
-            soundManager.play( coinSound );
+            playSound( coinSound );
             
             // reproduz o som
-            soundManager.play( powerUpSound );
+            playSound( powerUpSound );
             
         } else if ( powerUp instanceof PowerUp.FireFlower ) {
             
@@ -783,7 +1439,7 @@ public class GameManager extends GameCore {
             quantidadeVidas++;
             
             // reproduz o som
-            soundManager.play( oneUpSound );
+            playSound( oneUpSound );
             
         } else if ( powerUp instanceof PowerUp.Goal ) {
             
@@ -792,17 +1448,22 @@ public class GameManager extends GameCore {
             
             // prepara fechamento
             quadroAtualAbertura = 0;
-                
+            
             // avança no mapa
-            soundManager.play( powerUpSound );
+            playSound( powerUpSound );
             
             // sinaliza para ir para a próxima fase
             setGoToNextLevel( true );
             
+            // carrega a próxima fase durante a transferência dos pontos
+            prepareNextLevel();
+            
             // pára a música e toca a música de nova fase
-            midiPlayerMusica.stop();
+            stopMusic();
             
-            midiPlayerMusicaFinalFase.play( musicaFinalFase, false );
+            if ( midiPlayerMusicaFinalFase != null ) {
+                midiPlayerMusicaFinalFase.play( musicaFinalFase, false );
+            }
             
             //midiPlayer2
             
@@ -853,48 +1514,10 @@ public class GameManager extends GameCore {
         
         for ( int i = 0; i < n.length; i++ ) {
             
-            switch ( n[ i ] ) {
-                case '0':
-                    g2d.drawImage( imagemInterface0, x, y, null );
-                    x += imagemInterface0.getWidth( null ) + kern;
-                    break;
-                case '1':
-                    g2d.drawImage( imagemInterface1, x, y, null );
-                    x += imagemInterface1.getWidth( null ) + kern;
-                    break;
-                case '2':
-                    g2d.drawImage( imagemInterface2, x, y, null );
-                    x += imagemInterface2.getWidth( null ) + kern;
-                    break;
-                case '3':
-                    g2d.drawImage( imagemInterface3, x, y, null );
-                    x += imagemInterface3.getWidth( null ) + kern;
-                    break;
-                case '4':
-                    g2d.drawImage( imagemInterface4, x, y, null );
-                    x += imagemInterface4.getWidth( null ) + kern;
-                    break;
-                case '5':
-                    g2d.drawImage( imagemInterface5, x, y, null );
-                    x += imagemInterface5.getWidth( null ) + kern;
-                    break;
-                case '6':
-                    g2d.drawImage( imagemInterface6, x, y, null );
-                    x += imagemInterface6.getWidth( null ) + kern;
-                    break;
-                case '7':
-                    g2d.drawImage( imagemInterface7, x, y, null );
-                    x += imagemInterface7.getWidth( null ) + kern;
-                    break;
-                case '8':
-                    g2d.drawImage( imagemInterface8, x, y, null );
-                    x += imagemInterface8.getWidth( null ) + kern;
-                    break;
-                case '9':
-                    g2d.drawImage( imagemInterface9, x, y, null );
-                    x += imagemInterface9.getWidth( null ) + kern;
-                    break;
-                    
+            if ( n[ i ] >= '0' && n[ i ] <= '9' ) {
+                AtlasRegion regiao = regioesNumeros[ n[ i ] - '0' ];
+                regiao.draw( g2d, x, y );
+                x += regiao.getWidth() + kern;
             }
             
         }
@@ -979,8 +1602,7 @@ public class GameManager extends GameCore {
         int xPontuacao = largura / 2 - imagemInterfacePontuacao.getWidth( null ) / 2;
         
         // pára a música
-        if ( !midiPlayerMusica.isPaused() )
-            midiPlayerMusica.stop();
+        stopMusic();
         
         // desenha o retângulo preto
         g2d.fillRect( 0, 0, largura, altura );
@@ -1010,39 +1632,144 @@ public class GameManager extends GameCore {
         if ( quantidadePontosFase > 0 ) {
             quantidadePontos += 10;
             quantidadePontosFase -= 10;
-            soundManager.play( coinSound );
+            playSound( coinSound );
         }
         
         // se ja transferiu os pontos e se a espera terminou, carrega próxima fase
-        if ( quantidadePontosFase == 0 && 
-                !midiPlayerMusicaFinalFase.getSequencer().isRunning() ) {
-            
-            // sinaliza para ir para a próxima fase
-            setGoToNextLevel( false );
+        if ( quantidadePontosFase == 0 && ( midiPlayerMusicaFinalFase == null ||
+                !midiPlayerMusicaFinalFase.getSequencer().isRunning() ) ) {
             
-            // seta o fundo
-            renderer.setBackground( resourceManager.loadImage(
-                    "background" + quantidadeEstrelas + ".png" ) );
+            loadNextLevel();
             
-            // carrega o próximo mapa
-            map = resourceManager.loadNextMap();
+        }
+        
+        
+    }
+    
+    
+    /**
+     * Requisita a carga do conteúdo da próxima fase, das hospedeiras das
+     * suas entidades, do seu fundo e da sua música a um AssetLoader, para 
+     * que loadNextLevel() não precise carregá-los na thread do jogo. O
+     * AssetLoader é fechado por loadNextLevel().
+     */
+    private void prepareNextLevel() {
+        
+        if ( levelLoader == null ) {
+            levelLoader = new AssetLoader( 1 );
+        }
+        
+        cargaProximaFase = levelLoader.load( 
+                new Callable< LevelSource >() {
+            public LevelSource call() {
+                return resourceManager.readNextLevel();
+            }
+        });
+        
+        if ( renderer != null ) {
+            final String name = "background" + quantidadeEstrelas + ".png";
+            cargaFundoProximaFase = levelLoader.load( 
+                    new Callable< Image >() {
+                public Image call() {
+                    return resourceManager.loadImage( name );
+                }
+            });
+        }
+        
+        if ( !isHeadless() ) {
+            final String name = "music" + quantidadeEstrelas + ".midi";
+            cargaMusicaProximaFase = levelLoader.load( 
+                    new Callable< Sequence >() {
+                public Sequence call() {
+                    return MidiPlayer.loadSequence( name );
+                }
+            });
+        }
+        
+    }
+    
+    
+    /**
+     * Carrega a próxima fase, com seu fundo e música, a partir das cargas
+     * requisitadas por prepareNextLevel(), aguardando as que ainda não 
+     * terminaram.
+     */
+    private void loadNextLevel() {
+        
+        // sinaliza para ir para a próxima fase
+        setGoToNextLevel( false );
+        
+        if ( cargaProximaFase == null ) {
+            prepareNextLevel();
+        }
+        
+        // seta o fundo
+        if ( cargaFundoProximaFase != null ) {
+            renderer.setBackground( 
+                    AssetLoader.get( cargaFundoProximaFase ) );
+        }
+        
+        // carrega o próximo mapa, reaproveitando as sprites do atual
+        resourceManager.releaseMap( map );
+        map = resourceManager.loadNextMap( 
+                AssetLoader.get( cargaProximaFase ) );
+        
+        if ( !isHeadless() ) {
             
             // para a música do final
-            midiPlayerMusicaFinalFase.stop();
+            if ( midiPlayerMusicaFinalFase != null ) {
+                midiPlayerMusicaFinalFase.stop();
+            }
             
             // troca a música
-            musica = midiPlayerMusica.getSequence( "music" + quantidadeEstrelas + ".midi" );
+            musica = AssetLoader.get( cargaMusicaProximaFase );
             
             // coloca a música para rodar de novo
-            midiPlayerMusica.play( musica, true );
-            
-            // zera as moedas
-            quantidadeCoins = 0;
+            playMusic();
             
         }
         
+        // zera as moedas
+        quantidadeCoins = 0;
+        
+        // todas as cargas foram obtidas, então as threads podem terminar
+        levelLoader.close();
+        levelLoader = null;
+        cargaProximaFase = null;
+        cargaFundoProximaFase = null;
+        cargaMusicaProximaFase = null;
         
     }
+
+
+    /**
+     * Reproduz um som, se houver sistema de som.
+     */
+    private void playSound( Sound sound ) {
+        if ( soundManager != null ) {
+            soundManager.play( sound );
+        }
+    }
+
+
+    /**
+     * Reproduz a música da fase atual em loop, se houver sistema de som.
+     */
+    private void playMusic() {
+        if ( midiPlayerMusica != null ) {
+            midiPlayerMusica.play( musica, true );
+        }
+    }
+    
+    
+    /**
+     * Pára a música da fase atual, se estiver tocando.
+     */
+    private void stopMusic() {
+        if ( midiPlayerMusica != null && !midiPlayerMusica.isPaused() ) {
+            midiPlayerMusica.stop();
+        }
+    }
     
     
     /**
@@ -1058,12 +1785,12 @@ public class GameManager extends GameCore {
         int y = largura / 2 - imagemInterfaceGameOver.getWidth( null ) / 2;
         
         // pára a música
-        if ( !midiPlayerMusica.isPaused() )
-            midiPlayerMusica.stop();
+        stopMusic();
         
         // toca a música de game over
-        if ( midiPlayerMusicaGameOver.isPaused() );
+        if ( midiPlayerMusicaGameOver != null ) {
             midiPlayerMusicaGameOver.play( musicaGameOver, false );
+        }
         
         // desenha o retângulo preto
         g2d.fillRect( 0, 0, largura, altura );
@@ -1090,7 +1817,9 @@ public class GameManager extends GameCore {
         
         if ( isPaused() != p ) {
             this.paused = p;
-            inputManager.resetAllGameActions();
+            if ( inputManager != null ) {
+                inputManager.resetAllGameActions();
+            }
         }
         
     }
@@ -1099,19 +1828,19 @@ public class GameManager extends GameCore {
     public boolean isPaused() {
         return paused;
     }
-
+    
     public boolean isGoToNextLevel() {
         return goToNextLevel;
     }
-
+    
     public void setGoToNextLevel(boolean goToNextLevel) {
         this.goToNextLevel = goToNextLevel;
     }
-
+    
     public boolean isGameOver() {
         return gameOver;
     }
-
+    
     public void setGameOver(boolean gameOver) {
         this.gameOver = gameOver;
     }
@@ -0,0 +1,182 @@
+package jogo;
+
+import infraestrutura.grafico.Sprite;
+import infraestrutura.input.GameAction;
+import jogo.sprites.Creature;
+import jogo.tile.TileMap;
+import jogo.tile.TileMapRenderer;
+
+/**
+ * A classe HeadlessRunner executa a lógica do jogo sem tela, sons ou teclado,
+ * chamando GameManager.update() o mais rápido possível com um tempo fixo por
+ * quadro. Útil para testes de longa duração em servidores sem monitor e como
+ * base para o treinamento de agentes.
+ *
+ * <p>O jogador é controlado por um roteiro simples: anda para a direita e
+ * pula periodicamente. Quando o jogo termina, um novo jogo é iniciado.
+ *
+ * <p>Para testes de carga, uma quantidade de criaturas extras pode ser
+ * especificada. Elas são espalhadas pelo mapa em um CreatureStore, usando
+ * a primeira criatura do mapa como modelo.
+ *
+ * <p>Uso: java jogo.HeadlessRunner [quadros] [milisegundos por quadro]
+ * [criaturas extras]
+ *
+ * @author David Buzatto
+ */
+public class HeadlessRunner {
+    
+    // quantidade de quadros entre os pulos do jogador
+    private static final int JUMP_INTERVAL = 40;
+    
+    private GameManager game;
+    private TileMap stressMap;
+    private int stressCreatures;
+    private long elapsedTime;
+    private long frames;
+    private int games;
+    
+    
+    /**
+     * Cria um novo HeadlessRunner que avança o jogo elapsedTime
+     * milisegundos a cada quadro.
+     */
+    public HeadlessRunner( long elapsedTime ) {
+        this( elapsedTime, 0 );
+    }
+    
+    
+    /**
+     * Cria um novo HeadlessRunner que avança o jogo elapsedTime
+     * milisegundos a cada quadro e adiciona a cada mapa a quantidade 
+     * especificada de criaturas extras.
+     */
+    public HeadlessRunner( long elapsedTime, int stressCreatures ) {
+        this.elapsedTime = elapsedTime;
+        this.stressCreatures = stressCreatures;
+        newGame();
+    }
+    
+    
+    /**
+     * Inicia um novo jogo sem tela.
+     */
+    private void newGame() {
+        game = new GameManager();
+        game.initHeadless();
+        games++;
+    }
+    
+    
+    /**
+     * Executa um quadro do jogo.
+     */
+    public void step() {
+        
+        if ( game.isGameOver() ) {
+            newGame();
+        }
+        
+        if ( stressCreatures > 0 && game.getMap() != stressMap ) {
+            createStressCreatures();
+        }
+        
+        // roteiro do jogador
+        game.getGameAction( "moveRight" ).press();
+        GameAction jump = game.getGameAction( "jump" );
+        if ( frames % JUMP_INTERVAL == 0 ) {
+            jump.press();
+        } else {
+            jump.release();
+        }
+        
+        game.update( elapsedTime );
+        frames++;
+        
+    }
+    
+    
+    /**
+     * Espalha as criaturas extras pelo mapa atual, caindo do topo do mapa.
+     */
+    private void createStressCreatures() {
+        
+        stressMap = game.getMap();
+        game.setCreatureStore( null );
+        
+        // usa a primeira criatura do mapa como modelo
+        Creature host = null;
+        for ( int i = 0; i < stressMap.getSpriteCount() && host == null; i++ ) {
+            Sprite sprite = stressMap.getSprite( i );
+            if ( sprite instanceof Creature ) {
+                host = ( Creature ) sprite;
+            }
+        }
+        if ( host == null ) {
+            return;
+        }
+        
+        CreatureStore store = new CreatureStore( stressCreatures );
+        int kind = store.addKind( host );
+        int mapWidth = TileMapRenderer.tilesToPixels( stressMap.getWidth() );
+        for ( int j = 0; j < stressCreatures; j++ ) {
+            store.add( kind, ( float ) j * mapWidth / stressCreatures, 0 );
+        }
+        game.setCreatureStore( store );
+        
+    }
+    
+    
+    /**
+     * Obtém o jogo que está sendo executado.
+     */
+    public GameManager getGame() {
+        return game;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de quadros executados.
+     */
+    public long getFrames() {
+        return frames;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de jogos iniciados.
+     */
+    public int getGames() {
+        return games;
+    }
+    
+    
+    public static void main( String[] args ) {
+        
+        long totalFrames = args.length > 0 ? Long.parseLong( args[ 0 ] ) : 100000;
+        long elapsedTime = args.length > 1 ? Long.parseLong( args[ 1 ] ) : 16;
+        int stressCreatures = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 0;
+        
+        // garante que nenhum recurso gráfico nativo será usado
+        System.setProperty( "java.awt.headless", "true" );
+        
+        HeadlessRunner runner = new HeadlessRunner( elapsedTime, 
+                stressCreatures );
+        
+        long startTime = System.nanoTime();
+        while ( runner.getFrames() < totalFrames ) {
+            runner.step();
+        }
+        long time = System.nanoTime() - startTime;
+        
+        System.out.println( "quadros: " + runner.getFrames() );
+        System.out.println( "jogos: " + runner.getGames() );
+        System.out.println( "tempo simulado (s): " +
+                totalFrames * elapsedTime / 1000 );
+        System.out.println( "tempo real (ms): " + time / 1000000 );
+        System.out.println( "quadros por segundo: " +
+                ( long ) ( totalFrames / ( time / 1e9 ) ) );
+        
+    }
+    
+}
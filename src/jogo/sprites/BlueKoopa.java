@@ -13,4 +13,12 @@ public class BlueKoopa extends Creature {
         setMaxSpeed( 0.1f );
     }
     
+    
+    public Object clone() {
+        return new BlueKoopa( ( Animation ) getLeft().clone(),
+                ( Animation ) getRight().clone(),
+                ( Animation ) getDeadLeft().clone(),
+                ( Animation ) getDeadRight().clone() );
+    }
+    
 }
\ No newline at end of file
@@ -1,8 +1,7 @@
 package jogo.sprites;
 
 import infraestrutura.grafico.Animation;
-import infraestrutura.grafico.Sprite;
-import java.lang.reflect.Constructor;
+import jogo.tile.MapSprite;
 
 /**
  * Uma Creature é uma Sprite que é afetada pela gravidade e pode morrer.
@@ -11,7 +10,7 @@ import java.lang.reflect.Constructor;
  *
  * @author David Buzatto
  */
-public abstract class Creature extends Sprite {
+public abstract class Creature extends MapSprite {
     
     /**
      * Quantidade de tempo para ir de STATE_DYING para STATE_DEAD.
@@ -44,21 +43,22 @@ public abstract class Creature extends Sprite {
         setState( STATE_NORMAL );
     }
     
-    public Object clone() {
-        // usa reflexão para criar a subclasse correta.
-        Constructor constructor = getClass().getConstructors()[ 0 ];
-        try {
-            return constructor.newInstance( new Object[] {
-                ( Animation ) getLeft().clone(),
-                ( Animation ) getRight().clone(),
-                ( Animation ) getDeadLeft().clone(),
-                ( Animation ) getDeadRight().clone()
-            });
-        } catch ( Exception ex ) {
-            // provavelmente nunca deve ocorrer
-            ex.printStackTrace();
-            return null;
-        }
+    /**
+     * Clona a criatura. Cada subclasse cria diretamente um objeto do seu 
+     * próprio tipo, com cópias das suas animações.
+     */
+    public abstract Object clone();
+    
+    
+    /**
+     * Volta a criatura ao estado inicial: viva, parada e virada para a 
+     * direita.
+     */
+    public void reset() {
+        anim = getRight();
+        super.reset();
+        state = STATE_NORMAL;
+        setStateTime( 0 );
     }
     
     
@@ -14,6 +14,14 @@ public class FlyGoomba extends Creature {
     }
     
     
+    public Object clone() {
+        return new FlyGoomba( ( Animation ) getLeft().clone(),
+                ( Animation ) getRight().clone(),
+                ( Animation ) getDeadLeft().clone(),
+                ( Animation ) getDeadRight().clone() );
+    }
+    
+    
     public boolean isFlying() {
         return isAlive();
     }
@@ -13,4 +13,12 @@ public class Goomba extends Creature {
         setMaxSpeed( 0.1f );
     }
     
+    
+    public Object clone() {
+        return new Goomba( ( Animation ) getLeft().clone(),
+                ( Animation ) getRight().clone(),
+                ( Animation ) getDeadLeft().clone(),
+                ( Animation ) getDeadRight().clone() );
+    }
+    
 }
\ No newline at end of file
@@ -13,4 +13,12 @@ public class GreenKoopa extends Creature {
         setMaxSpeed( 0.1f );
     }
     
+    
+    public Object clone() {
+        return new GreenKoopa( ( Animation ) getLeft().clone(),
+                ( Animation ) getRight().clone(),
+                ( Animation ) getDeadLeft().clone(),
+                ( Animation ) getDeadRight().clone() );
+    }
+    
 }
\ No newline at end of file
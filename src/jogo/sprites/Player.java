@@ -1,7 +1,6 @@
 package jogo.sprites;
 
 import infraestrutura.grafico.Animation;
-import java.lang.reflect.Constructor;
 
 /**
  * O jogador.
@@ -11,6 +10,7 @@ import java.lang.reflect.Constructor;
 public class Player extends Creature {
     
     private static final float JUMP_SPEED = -.77f;
+    private static final float WALK_SPEED = .1f;
     
     private boolean onGround;
     
@@ -50,17 +50,13 @@ public class Player extends Creature {
         
         turnedToRight = true;
         
-        setMaxSpeed( 0.1f );
+        setMaxSpeed( WALK_SPEED );
         setDown( false );
     }
     
     
     public Object clone() {
-        // usa reflexão para criar a subclasse correta.
-        Constructor constructor = getClass().getConstructors()[ 0 ];
-        try {
-            return constructor.newInstance( new Object[] {
-                ( Animation ) getLeft().clone(),
+        return new Player( ( Animation ) getLeft().clone(),
                 ( Animation ) getRight().clone(),
                 ( Animation ) getDeadLeft().clone(),
                 ( Animation ) getDeadRight().clone(),
@@ -69,13 +65,21 @@ public class Player extends Creature {
                 ( Animation ) getJumpLeft().clone(),
                 ( Animation ) getJumpRight().clone(),
                 ( Animation ) getDownLeft().clone(),
-                ( Animation ) getDownRight().clone()
-            });
-        } catch ( Exception ex ) {
-            // provavelmente nunca deve ocorrer
-            ex.printStackTrace();
-            return null;
-        }
+                ( Animation ) getDownRight().clone() );
+    }
+    
+    
+    /**
+     * Volta o jogador ao estado inicial, virado para a direita, em pé e 
+     * andando sem correr.
+     */
+    public void reset() {
+        super.reset();
+        setMaxSpeed( WALK_SPEED );
+        onGround = false;
+        turnedToRight = true;
+        setDown( false );
+        setPulando( false );
     }
     
     
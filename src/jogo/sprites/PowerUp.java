@@ -1,31 +1,23 @@
 package jogo.sprites;
 
 import infraestrutura.grafico.Animation;
-import infraestrutura.grafico.Sprite;
-import java.lang.reflect.Constructor;
+import jogo.tile.MapSprite;
 
 /**
  * PowerUp é uma Sprite que o jogador pode pegar.
  */
-public abstract class PowerUp extends Sprite {
+public abstract class PowerUp extends MapSprite {
     
     public PowerUp( Animation anim ) {
         super( anim );
     }
     
     
-    public Object clone() {
-        // usa reflexão para criar a subclasse correta
-        Constructor constructor = getClass().getConstructors()[ 0 ];
-        try {
-            return constructor.newInstance(
-                    new Object[] { ( Animation)anim.clone() } );
-        } catch ( Exception ex ) {
-            // provavelmente nunca irá acontecer
-            ex.printStackTrace();
-            return null;
-        }
-    }
+    /**
+     * Clona o PowerUp. Cada subclasse cria diretamente um objeto do seu 
+     * próprio tipo, com uma cópia da sua animação.
+     */
+    public abstract Object clone();
     
     
     /**
@@ -35,6 +27,10 @@ public abstract class PowerUp extends Sprite {
         public Coin( Animation anim ) {
             super( anim );
         }
+        
+        public Object clone() {
+            return new Coin( ( Animation ) anim.clone() );
+        }
     }
     
     
@@ -45,6 +41,10 @@ public abstract class PowerUp extends Sprite {
         public Mushroom( Animation anim ) {
             super( anim );
         }
+        
+        public Object clone() {
+            return new Mushroom( ( Animation ) anim.clone() );
+        }
     }
     
     /**
@@ -54,6 +54,10 @@ public abstract class PowerUp extends Sprite {
         public OneUp( Animation anim ) {
             super( anim );
         }
+        
+        public Object clone() {
+            return new OneUp( ( Animation ) anim.clone() );
+        }
     }
     
     /**
@@ -63,6 +67,10 @@ public abstract class PowerUp extends Sprite {
         public FireFlower( Animation anim ) {
             super( anim );
         }
+        
+        public Object clone() {
+            return new FireFlower( ( Animation ) anim.clone() );
+        }
     }
     
     
@@ -73,6 +81,10 @@ public abstract class PowerUp extends Sprite {
         public Goal( Animation anim ) {
             super( anim );
         }
+        
+        public Object clone() {
+            return new Goal( ( Animation ) anim.clone() );
+        }
     }
     
 }
\ No newline at end of file
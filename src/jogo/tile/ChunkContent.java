@@ -0,0 +1,102 @@
+package jogo.tile;
+
+import java.util.Arrays;
+
+/**
+ * A classe ChunkContent recebe o conteúdo de um chunk lido de uma
+ * LevelSource: os pedaços, linha por linha, e as entidades que iniciam no
+ * chunk. O mesmo ChunkContent é reaproveitado na leitura de vários chunks.
+ *
+ * @author David Buzatto
+ */
+public class ChunkContent {
+    
+    private short[] tiles;
+    private int firstEntity;
+    private int entityCount;
+    private char[] entitySymbols = new char[ 16 ];
+    private int[] entityX = new int[ 16 ];
+    private int[] entityY = new int[ 16 ];
+    
+    
+    /**
+     * Obtém os pedaços do chunk, com CHUNK_WIDTH * altura posições, linha
+     * por linha.
+     */
+    public short[] getTiles() {
+        return tiles;
+    }
+    
+    
+    /**
+     * Obtém o índice na fase da primeira entidade do chunk.
+     */
+    public int getFirstEntity() {
+        return firstEntity;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de entidades do chunk.
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    
+    /**
+     * Obtém o símbolo de uma entidade do chunk, entre zero e
+     * getEntityCount() - 1.
+     */
+    public char getEntitySymbol( int index ) {
+        return entitySymbols[ index ];
+    }
+    
+    
+    /**
+     * Obtém a coluna de uma entidade do chunk.
+     */
+    public int getEntityX( int index ) {
+        return entityX[ index ];
+    }
+    
+    
+    /**
+     * Obtém a linha de uma entidade do chunk.
+     */
+    public int getEntityY( int index ) {
+        return entityY[ index ];
+    }
+    
+    
+    /**
+     * Inicia a leitura de um chunk, com os pedaços especificados e sem
+     * entidades.
+     */
+    void start( short[] tiles, int firstEntity ) {
+        this.tiles = tiles;
+        this.firstEntity = firstEntity;
+        entityCount = 0;
+    }
+    
+    
+    /**
+     * Adiciona uma entidade ao chunk.
+     */
+    void addEntity( char symbol, int x, int y ) {
+        
+        if ( entityCount == entitySymbols.length ) {
+            int capacity = entityCount * 2;
+            entitySymbols = Arrays.copyOf( entitySymbols, capacity );
+            entityX = Arrays.copyOf( entityX, capacity );
+            entityY = Arrays.copyOf( entityY, capacity );
+        }
+        
+        entitySymbols[ entityCount ] = symbol;
+        entityX[ entityCount ] = x;
+        entityY[ entityCount ] = y;
+        entityCount++;
+        
+    }
+    
+}
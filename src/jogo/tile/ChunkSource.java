@@ -0,0 +1,20 @@
+package jogo.tile;
+
+/**
+ * Uma ChunkSource fornece o conteúdo dos chunks (faixas de colunas) de um
+ * TileMap que é carregado sob demanda.
+ *
+ * @author David Buzatto
+ */
+public interface ChunkSource {
+    
+    /**
+     * Carrega o chunk especificado no mapa, configurando os tiles das colunas
+     * do chunk com TileMap.setChunkTiles(), shareChunkTiles() ou setTileId()
+     * e adicionando as sprites que iniciam nessas colunas com 
+     * TileMap.addSprite(). As entidades que o mapa indica como removidas, 
+     * em TileMap.isEntityRemoved(), não devem ser recriadas.
+     */
+    public void loadChunk( TileMap map, int chunk );
+    
+}
@@ -0,0 +1,315 @@
+package jogo.tile;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A classe CompiledLevel lê uma fase no formato binário compilado (veja
+ * LevelFile) um chunk por vez. Na abertura, somente o cabeçalho e a tabela
+ * com a posição de cada chunk no arquivo são lidos, e cada chunk é lido e
+ * expandido apenas quando é pedido. Assim, a memória usada não depende do
+ * tamanho da fase, a não ser pelos oito bytes de cada chunk na tabela.
+ *
+ * <p>O arquivo é lido através de um InputStream obtido da Source, que é
+ * mantido aberto entre as leituras: chunks pedidos em ordem crescente, como
+ * quando o jogador avança na fase, são lidos pulando somente os bytes entre
+ * eles, e um chunk anterior ao último lido faz o arquivo ser aberto
+ * novamente. Todos os valores lidos são validados e um arquivo inválido ou
+ * incompleto gera uma IOException. Uma CompiledLevel deve ser lida por uma
+ * thread de cada vez.
+ *
+ * @author David Buzatto
+ */
+public class CompiledLevel implements LevelSource {
+    
+    private Source source;
+    private int width;
+    private int height;
+    private int chunkSize;
+    private char[] entitySymbols;
+    
+    // posição de cada chunk no arquivo e índice da sua primeira entidade,
+    // com uma posição a mais para o final do último chunk
+    private int[] chunkPositions;
+    private int[] chunkEntities;
+    
+    // arquivo aberto, sua posição atual e o buffer dos chunks lidos
+    private InputStream in;
+    private long position;
+    private byte[] buffer = new byte[ 0 ];
+    
+    
+    /**
+     * Abre uma fase compilada, lendo seu cabeçalho e a tabela dos chunks.
+     */
+    CompiledLevel( Source source ) throws IOException {
+        
+        this.source = source;
+        
+        DataInputStream data = new DataInputStream(
+                new BufferedInputStream( source.open() ) );
+        try {
+            readHeader( data );
+        } catch ( EOFException ex ) {
+            throw new IOException( "A fase compilada está incompleta." );
+        } finally {
+            data.close();
+        }
+        
+    }
+    
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    
+    public int getChunkCount() {
+        return chunkPositions.length - 1;
+    }
+    
+    
+    public char[] getEntitySymbols() {
+        return entitySymbols.clone();
+    }
+    
+    
+    /**
+     * Obtém a quantidade de entidades da fase.
+     */
+    public int getEntityCount() {
+        return chunkEntities[ getChunkCount() ];
+    }
+    
+    
+    /**
+     * Lê e expande os pedaços e as entidades de um chunk. Os pedaços são
+     * lidos em um novo array a cada chamada.
+     */
+    public void readChunk( int chunk, ChunkContent content )
+            throws IOException {
+        
+        int start = chunkPositions[ chunk ];
+        int length = chunkPositions[ chunk + 1 ] - start;
+        if ( buffer.length < length ) {
+            buffer = new byte[ length ];
+        }
+        read( start, length );
+        ByteBuffer data = ByteBuffer.wrap( buffer, 0, length );
+        
+        try {
+            
+            // expande as sequências de pedaços
+            short[] tiles = new short[ chunkSize ];
+            int runCount = data.getInt();
+            if ( runCount < 0 || runCount > chunkSize ) {
+                throw new IOException( "Quantidade de sequências de " +
+                        "pedaços inválida no chunk " + chunk + ": " +
+                        runCount );
+            }
+            int tile = 0;
+            for ( int i = 0; i < runCount; i++ ) {
+                short id = data.getShort();
+                int runLength = data.getShort() & LevelFile.MAX_RUN;
+                if ( id < 0 ) {
+                    throw new IOException( "Pedaço inválido no chunk " +
+                            chunk + ": " + id );
+                }
+                if ( runLength == 0 || runLength > chunkSize - tile ) {
+                    throw new IOException( "Tamanho de sequência de " +
+                            "pedaços inválido no chunk " + chunk + ": " +
+                            runLength );
+                }
+                if ( id != TileMap.EMPTY_TILE ) {
+                    Arrays.fill( tiles, tile, tile + runLength, id );
+                }
+                tile += runLength;
+            }
+            if ( tile != chunkSize ) {
+                throw new IOException( "Os pedaços não preenchem o chunk " +
+                        chunk + "." );
+            }
+            
+            // lê as entidades, que precisam estar dentro do chunk
+            content.start( tiles, chunkEntities[ chunk ] );
+            int firstX = chunk * TileMap.CHUNK_WIDTH;
+            int lastX = Math.min( firstX + TileMap.CHUNK_WIDTH, width ) - 1;
+            int entityCount = chunkEntities[ chunk + 1 ] -
+                    chunkEntities[ chunk ];
+            for ( int i = 0; i < entityCount; i++ ) {
+                char symbol = data.getChar();
+                int x = data.getInt();
+                int y = data.getInt();
+                if ( x < firstX || x > lastX || y < 0 || y >= height ) {
+                    throw new IOException( "Entidade fora do chunk " +
+                            chunk + ": " + symbol + " em " + x + ", " + y );
+                }
+                content.addEntity( symbol, x, y );
+            }
+            
+            if ( data.hasRemaining() ) {
+                throw new IOException( "O chunk " + chunk +
+                        " tem dados a mais." );
+            }
+            
+        } catch ( BufferUnderflowException ex ) {
+            throw new IOException( "O chunk " + chunk +
+                    " está incompleto." );
+        }
+        
+    }
+    
+    
+    /**
+     * Fecha o arquivo, se estiver aberto. Um chunk lido depois disso abre o
+     * arquivo novamente.
+     */
+    public void close() throws IOException {
+        if ( in != null ) {
+            in.close();
+            in = null;
+        }
+    }
+    
+    
+    /**
+     * Lê e valida o cabeçalho e a tabela dos chunks.
+     */
+    private void readHeader( DataInputStream data ) throws IOException {
+        
+        if ( data.readInt() != LevelFile.MAGIC ) {
+            throw new IOException( "O arquivo não é uma fase compilada." );
+        }
+        short version = data.readShort();
+        if ( version != LevelFile.VERSION ) {
+            throw new IOException( "Versão da fase compilada não " +
+                    "suportada: " + version );
+        }
+        
+        width = data.readInt();
+        height = data.readInt();
+        if ( width <= 0 || height <= 0 || ( long ) height *
+                TileMap.CHUNK_WIDTH > Integer.MAX_VALUE ) {
+            throw new IOException( "Tamanho da fase inválido: " +
+                    width + " x " + height );
+        }
+        chunkSize = TileMap.CHUNK_WIDTH * height;
+        
+        int symbolCount = data.readInt();
+        if ( symbolCount < 0 || symbolCount > Character.MAX_VALUE + 1 ) {
+            throw new IOException( "Quantidade de símbolos de entidades " +
+                    "inválida: " + symbolCount );
+        }
+        entitySymbols = new char[ symbolCount ];
+        for ( int i = 0; i < symbolCount; i++ ) {
+            entitySymbols[ i ] = data.readChar();
+        }
+        
+        int chunkCount = data.readInt();
+        if ( chunkCount != ( width + TileMap.CHUNK_WIDTH - 1 ) /
+                TileMap.CHUNK_WIDTH ) {
+            throw new IOException( "Quantidade de chunks inválida: " +
+                    chunkCount );
+        }
+        
+        // o primeiro chunk começa logo após a tabela e cada chunk tem de uma
+        // a chunkSize sequências e no máximo uma entidade por posição
+        long headerSize = 22 + 2L * symbolCount + 8L * ( chunkCount + 1 );
+        chunkPositions = new int[ chunkCount + 1 ];
+        chunkEntities = new int[ chunkCount + 1 ];
+        for ( int i = 0; i <= chunkCount; i++ ) {
+            chunkPositions[ i ] = data.readInt();
+            chunkEntities[ i ] = data.readInt();
+            boolean valid;
+            if ( i == 0 ) {
+                valid = chunkPositions[ i ] == headerSize &&
+                        chunkEntities[ i ] == 0;
+            } else {
+                long length = ( long ) chunkPositions[ i ] -
+                        chunkPositions[ i - 1 ];
+                long entities = ( long ) chunkEntities[ i ] -
+                        chunkEntities[ i - 1 ];
+                long runBytes = length - 4 - 10 * entities;
+                valid = entities >= 0 && entities <= chunkSize &&
+                        runBytes >= 4 && runBytes <= 4L * chunkSize &&
+                        runBytes % 4 == 0;
+            }
+            if ( !valid ) {
+                throw new IOException( "Tabela dos chunks inválida na " +
+                        "posição " + i + "." );
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Lê para o buffer os bytes do arquivo a partir da posição especificada,
+     * pulando os bytes desde a última leitura ou abrindo o arquivo novamente
+     * se a posição for anterior a ela.
+     */
+    private void read( long start, int length ) throws IOException {
+        
+        if ( in == null || start < position ) {
+            close();
+            in = source.open();
+            position = 0;
+        }
+        
+        try {
+            
+            while ( position < start ) {
+                long skipped = in.skip( start - position );
+                if ( skipped <= 0 ) {
+                    // skip() pode não avançar sem estar no final do arquivo
+                    if ( in.read() < 0 ) {
+                        throw new EOFException();
+                    }
+                    skipped = 1;
+                }
+                position += skipped;
+            }
+            
+            int offset = 0;
+            while ( offset < length ) {
+                int count = in.read( buffer, offset, length - offset );
+                if ( count < 0 ) {
+                    throw new EOFException();
+                }
+                offset += count;
+                position += count;
+            }
+            
+        } catch ( EOFException ex ) {
+            close();
+            throw new IOException( "A fase compilada está incompleta." );
+        } catch ( IOException ex ) {
+            // a posição do arquivo não é mais conhecida
+            close();
+            throw ex;
+        }
+        
+    }
+    
+    
+    /**
+     * Uma Source abre o arquivo de uma fase compilada, do início, sempre que
+     * ele precisa ser lido.
+     */
+    public interface Source {
+        
+        /**
+         * Abre o arquivo da fase.
+         */
+        public InputStream open() throws IOException;
+        
+    }
+    
+}
@@ -0,0 +1,177 @@
+package jogo.tile;
+
+import infraestrutura.grafico.Sprite;
+import infraestrutura.util.AssetLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A classe EntityRegistry associa os símbolos dos arquivos de mapa às
+ * sprites hospedeiras das entidades que eles representam. As hospedeiras
+ * ficam em um array indexado pelo próprio símbolo, então encontrar a
+ * entidade de um caracter custa um único acesso ao array, qualquer que seja
+ * a quantidade de tipos registrados.
+ *
+ * <p>Novos tipos de entidade são adicionados ao jogo registrando seu símbolo,
+ * sem alterar a leitura dos mapas. Os símbolos precisam ser caracteres
+ * ASCII.
+ *
+ * <p>Um símbolo pode ser registrado com uma Factory ao invés da hospedeira.
+ * A hospedeira é criada pela Factory somente quando o símbolo é usado pela
+ * primeira vez e é reaproveitada a partir de então, de forma que as imagens
+ * das entidades que nenhuma fase usa nunca são carregadas.
+ *
+ * @author David Buzatto
+ */
+public class EntityRegistry {
+    
+    /**
+     * Quantidade de símbolos possíveis.
+     */
+    public static final int SYMBOL_COUNT = 128;
+    
+    // hospedeiras já criadas, lidas sem trava
+    private AtomicReferenceArray< Sprite > hosts;
+    
+    // tarefas que criam as hospedeiras registradas com uma Factory, 
+    // alteradas somente com a trava do registro
+    private AtomicReferenceArray< FutureTask< Sprite > > tasks;
+    
+    
+    /**
+     * Cria um novo EntityRegistry vazio.
+     */
+    public EntityRegistry() {
+        hosts = new AtomicReferenceArray< Sprite >( SYMBOL_COUNT );
+        tasks = new AtomicReferenceArray< FutureTask< Sprite > >( 
+                SYMBOL_COUNT );
+    }
+    
+    
+    /**
+     * Registra a sprite hospedeira do símbolo especificado, substituindo a
+     * anterior, se houver.
+     */
+    public synchronized void register( char symbol, Sprite hostSprite ) {
+        checkSymbol( symbol );
+        hosts.set( symbol, hostSprite );
+        tasks.set( symbol, null );
+    }
+    
+    
+    /**
+     * Registra a Factory que cria a sprite hospedeira do símbolo 
+     * especificado no seu primeiro uso, substituindo o registro anterior,
+     * se houver.
+     */
+    public synchronized void register( char symbol, final Factory factory ) {
+        checkSymbol( symbol );
+        hosts.set( symbol, null );
+        tasks.set( symbol, new FutureTask< Sprite >( new Callable< Sprite >() {
+            public Sprite call() {
+                return factory.create();
+            }
+        }));
+    }
+    
+    
+    /**
+     * Remove o registro de um símbolo.
+     */
+    public synchronized void unregister( char symbol ) {
+        if ( symbol < SYMBOL_COUNT ) {
+            hosts.set( symbol, null );
+            tasks.set( symbol, null );
+        }
+    }
+    
+    
+    /**
+     * Obtém a sprite hospedeira do símbolo especificado, ou null se ele não
+     * estiver registrado. Se o símbolo foi registrado com uma Factory, a
+     * hospedeira é criada na primeira chamada, uma única vez mesmo que 
+     * várias threads a peçam ao mesmo tempo.
+     *
+     * <p>Hospedeiras já criadas são obtidas sem trava. A Factory é executada
+     * fora da trava do registro, então uma thread que pede outro símbolo
+     * não espera pela criação, e as threads que pedem o mesmo símbolo 
+     * aguardam a criação que já começou.
+     */
+    public Sprite get( char symbol ) {
+        
+        if ( symbol >= SYMBOL_COUNT ) {
+            return null;
+        }
+        
+        Sprite host = hosts.get( symbol );
+        if ( host != null ) {
+            return host;
+        }
+        
+        FutureTask< Sprite > task;
+        synchronized ( this ) {
+            host = hosts.get( symbol );
+            task = tasks.get( symbol );
+            if ( host != null || task == null ) {
+                return host;
+            }
+        }
+        
+        // executa a Factory, ou aguarda a thread que já a executa
+        host = AssetLoader.get( task );
+        
+        synchronized ( this ) {
+            // o símbolo pode ter sido registrado novamente enquanto isso
+            if ( tasks.get( symbol ) == task ) {
+                hosts.set( symbol, host );
+                tasks.set( symbol, null );
+            }
+        }
+        
+        return host;
+        
+    }
+    
+    
+    /**
+     * Verifica se um símbolo está registrado, sem criar sua hospedeira.
+     */
+    public synchronized boolean isRegistered( char symbol ) {
+        return symbol < SYMBOL_COUNT && 
+                ( hosts.get( symbol ) != null || tasks.get( symbol ) != null );
+    }
+    
+    
+    /**
+     * Verifica se a hospedeira de um símbolo registrado já foi criada.
+     */
+    public boolean isCreated( char symbol ) {
+        return symbol < SYMBOL_COUNT && hosts.get( symbol ) != null;
+    }
+    
+    
+    /**
+     * Verifica se um caracter pode ser usado como símbolo.
+     */
+    private static void checkSymbol( char symbol ) {
+        if ( symbol >= SYMBOL_COUNT || Character.isWhitespace( symbol ) ) {
+            throw new IllegalArgumentException(
+                    "Símbolo de entidade inválido: '" + symbol + "'" );
+        }
+    }
+    
+    
+    /**
+     * Uma Factory cria a sprite hospedeira de um tipo de entidade.
+     */
+    public interface Factory {
+        
+        /**
+         * Cria a sprite hospedeira, carregando suas imagens.
+         */
+        public Sprite create();
+        
+    }
+    
+}
@@ -0,0 +1,292 @@
+package jogo.tile;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A classe LevelData guarda o conteúdo original de uma fase, lido uma única
+ * vez do arquivo: os identificadores dos pedaços e a tabela das entidades
+ * (sprites) iniciais, cada uma com seu símbolo e sua posição em pedaços.
+ *
+ * <p>Os pedaços ficam em um array por chunk, no mesmo formato dos chunks do
+ * TileMap, e as entidades são agrupadas por chunk. Assim, um chunk é 
+ * lido compartilhando seu array com o TileMap, sem cópia, e somente as 
+ * entidades dele são percorridas. A fase inteira fica na memória, então o
+ * LevelData é usado para as fases no formato texto, que são editadas à mão
+ * e pequenas, e para compilar as fases. As fases compiladas são lidas 
+ * um chunk por vez pela CompiledLevel.
+ *
+ * @author David Buzatto
+ */
+public class LevelData implements LevelSource {
+    
+    private int width;
+    private int height;
+    private int chunkSize;
+    private short[][] tiles;
+    
+    // tabela das entidades
+    private char[] entitySymbols;
+    private int[] entityX;
+    private int[] entityY;
+    private int entityCount;
+    
+    // início das entidades de cada chunk na tabela (null se não agrupadas)
+    private int[] chunkEntityStart;
+    
+    
+    /**
+     * Cria um novo LevelData vazio com a largura e altura especificadas, em
+     * número de pedaços.
+     */
+    public LevelData( int width, int height ) {
+        this.width = width;
+        this.height = height;
+        chunkSize = TileMap.CHUNK_WIDTH * height;
+        tiles = new short[ getChunkCount() ][ chunkSize ];
+        entitySymbols = new char[ 16 ];
+        entityX = new int[ 16 ];
+        entityY = new int[ 16 ];
+    }
+    
+    
+    /**
+     * Obtém a largura da fase (número de pedaços).
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    
+    /**
+     * Obtém a altura da fase (número de pedaços).
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de chunks da fase.
+     */
+    public int getChunkCount() {
+        return ( width + TileMap.CHUNK_WIDTH - 1 ) / TileMap.CHUNK_WIDTH;
+    }
+    
+    
+    /**
+     * Obtém o identificador do pedaço no local especificado.
+     */
+    public int getTileId( int x, int y ) {
+        return tiles[ TileMap.tilesToChunks( x ) ][ getTileIndex( x, y ) ];
+    }
+    
+    
+    /**
+     * Configura o identificador do pedaço no local especificado.
+     */
+    public void setTileId( int x, int y, int id ) {
+        tiles[ TileMap.tilesToChunks( x ) ][ getTileIndex( x, y ) ] = 
+                ( short ) id;
+    }
+    
+    
+    /**
+     * Adiciona uma entidade, representada pelo seu símbolo no arquivo da
+     * fase, na posição especificada em pedaços. Dentro de um chunk, as
+     * entidades mantêm a ordem em que foram adicionadas.
+     */
+    public void addEntity( char symbol, int x, int y ) {
+        
+        if ( entityCount == entitySymbols.length ) {
+            int capacity = Math.max( 16, entityCount * 2 );
+            entitySymbols = Arrays.copyOf( entitySymbols, capacity );
+            entityX = Arrays.copyOf( entityX, capacity );
+            entityY = Arrays.copyOf( entityY, capacity );
+        }
+        
+        entitySymbols[ entityCount ] = symbol;
+        entityX[ entityCount ] = x;
+        entityY[ entityCount ] = y;
+        entityCount++;
+        chunkEntityStart = null;
+        
+    }
+    
+    
+    /**
+     * Obtém a quantidade de entidades.
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    
+    /**
+     * Obtém o símbolo de uma entidade.
+     */
+    public char getEntitySymbol( int index ) {
+        return entitySymbols[ index ];
+    }
+    
+    
+    /**
+     * Obtém a coluna de uma entidade.
+     */
+    public int getEntityX( int index ) {
+        return entityX[ index ];
+    }
+    
+    
+    /**
+     * Obtém a linha de uma entidade.
+     */
+    public int getEntityY( int index ) {
+        return entityY[ index ];
+    }
+    
+    
+    /**
+     * Obtém o índice da primeira entidade de um chunk. As entidades do chunk
+     * vão desse índice até getChunkEntityEnd( chunk ) - 1.
+     */
+    public int getChunkEntityStart( int chunk ) {
+        groupEntities();
+        return chunkEntityStart[ chunk ];
+    }
+    
+    
+    /**
+     * Obtém o índice seguinte ao da última entidade de um chunk.
+     */
+    public int getChunkEntityEnd( int chunk ) {
+        groupEntities();
+        return chunkEntityStart[ chunk + 1 ];
+    }
+    
+    
+    /**
+     * Obtém os símbolos das entidades da fase, sem repetições, na ordem em 
+     * que aparecem pela primeira vez.
+     */
+    public char[] getEntitySymbols() {
+        
+        BitSet used = new BitSet();
+        char[] symbols = new char[ 16 ];
+        int count = 0;
+        for ( int i = 0; i < entityCount; i++ ) {
+            char symbol = entitySymbols[ i ];
+            if ( !used.get( symbol ) ) {
+                used.set( symbol );
+                if ( count == symbols.length ) {
+                    symbols = Arrays.copyOf( symbols, count * 2 );
+                }
+                symbols[ count++ ] = symbol;
+            }
+        }
+        
+        return Arrays.copyOf( symbols, count );
+        
+    }
+    
+    
+    /**
+     * Lê um chunk, compartilhando seus pedaços, que o TileMap só copia se
+     * alterar algum deles.
+     */
+    public void readChunk( int chunk, ChunkContent content ) {
+        content.start( tiles[ chunk ], getChunkEntityStart( chunk ) );
+        int end = getChunkEntityEnd( chunk );
+        for ( int i = getChunkEntityStart( chunk ); i < end; i++ ) {
+            content.addEntity( entitySymbols[ i ], entityX[ i ], 
+                    entityY[ i ] );
+        }
+    }
+    
+    
+    /**
+     * Não faz nada, já que a fase está toda na memória.
+     */
+    public void close() {
+    }
+    
+    
+    /**
+     * Obtém a quantidade de pedaços de todos os chunks.
+     */
+    int getTileCount() {
+        return tiles.length * chunkSize;
+    }
+    
+    
+    /**
+     * Obtém um pedaço pela sua posição, contando os pedaços chunk após 
+     * chunk.
+     */
+    short getTile( int index ) {
+        return tiles[ index / chunkSize ][ index % chunkSize ];
+    }
+    
+    
+    /**
+     * Configura os pedaços das posições from até to - 1, contando os pedaços
+     * chunk após chunk.
+     */
+    void fillTiles( int from, int to, short id ) {
+        while ( from < to ) {
+            int chunk = from / chunkSize;
+            int end = Math.min( to, ( chunk + 1 ) * chunkSize );
+            Arrays.fill( tiles[ chunk ], from - chunk * chunkSize, 
+                    end - chunk * chunkSize, id );
+            from = end;
+        }
+    }
+    
+    
+    /**
+     * Obtém a posição de um pedaço no array do seu chunk, no formato dos 
+     * chunks do TileMap.
+     */
+    private int getTileIndex( int x, int y ) {
+        return y * TileMap.CHUNK_WIDTH + ( x & ( TileMap.CHUNK_WIDTH - 1 ) );
+    }
+    
+    
+    /**
+     * Agrupa as entidades por chunk, caso ainda não estejam agrupadas, com
+     * uma ordenação por contagem que mantém a ordem dentro de cada chunk.
+     */
+    private void groupEntities() {
+        
+        if ( chunkEntityStart != null ) {
+            return;
+        }
+        
+        int chunkCount = getChunkCount();
+        int[] start = new int[ chunkCount + 1 ];
+        for ( int i = 0; i < entityCount; i++ ) {
+            start[ TileMap.tilesToChunks( entityX[ i ] ) + 1 ]++;
+        }
+        for ( int chunk = 0; chunk < chunkCount; chunk++ ) {
+            start[ chunk + 1 ] += start[ chunk ];
+        }
+        
+        char[] symbols = new char[ entityCount ];
+        int[] xs = new int[ entityCount ];
+        int[] ys = new int[ entityCount ];
+        int[] next = Arrays.copyOf( start, chunkCount );
+        for ( int i = 0; i < entityCount; i++ ) {
+            int position = next[ TileMap.tilesToChunks( entityX[ i ] ) ]++;
+            symbols[ position ] = entitySymbols[ i ];
+            xs[ position ] = entityX[ i ];
+            ys[ position ] = entityY[ i ];
+        }
+        
+        entitySymbols = symbols;
+        entityX = xs;
+        entityY = ys;
+        chunkEntityStart = start;
+        
+    }
+    
+}
@@ -0,0 +1,217 @@
+package jogo.tile;
+
+import java.io.*;
+import java.util.ArrayList;
+
+/**
+ * A classe LevelFile lê e escreve o conteúdo de uma fase nos
+ * dois formatos de arquivo do jogo: o formato texto, editado à mão, e o
+ * formato binário compilado, gerado a partir do texto pelo MapCompiler.
+ *
+ * <p>No formato texto, cada caracter é uma posição do mapa: as letras de 'A'
+ * até a última letra de pedaço são pedaços, espaços são vazios e os demais
+ * caracteres são entidades, cujos símbolos são resolvidos pelo 
+ * EntityRegistry. Linhas que iniciam com '#' são comentários.
+ *
+ * <p>O formato binário, com bytes em ordem big-endian, contém:
+ * <pre>
+ *   int   MAGIC ("JMAP")
+ *   short VERSION
+ *   int   largura, int altura (em pedaços)
+ *   int   quantidade de símbolos de entidades usados, seguida de cada 
+ *         símbolo: char
+ *   int   quantidade de chunks, seguida da tabela dos chunks, com uma 
+ *         posição a mais para o final do último chunk: int posição do 
+ *         chunk no arquivo, int índice da primeira entidade do chunk
+ *   cada chunk: int quantidade de sequências, seguida de cada sequência de
+ *         pedaços iguais: short identificador, short quantidade (sem 
+ *         sinal); e as entidades do chunk: char símbolo, int coluna, 
+ *         int linha
+ * </pre>
+ * As sequências percorrem os pedaços do chunk na mesma ordem em que o 
+ * TileMap os guarda. Com a tabela, a CompiledLevel lê cada chunk sem ler os
+ * anteriores, mantendo na memória somente os chunks carregados. O formato
+ * texto é lido como UTF-8.
+ *
+ * @author David Buzatto
+ */
+public final class LevelFile {
+    
+    /**
+     * Identificador do formato binário.
+     */
+    public static final int MAGIC = 0x4A4D4150;
+    
+    /**
+     * Versão do formato binário.
+     */
+    public static final short VERSION = 2;
+    
+    // tamanho máximo de uma sequência de pedaços iguais
+    static final int MAX_RUN = 0xFFFF;
+    
+    
+    private LevelFile() {
+    }
+    
+    
+    /**
+     * Lê uma fase no formato texto. As letras de 'A' até maxTileLetter são
+     * pedaços e todos os demais caracteres que não são espaços são 
+     * entidades.
+     */
+    public static LevelData readText( BufferedReader reader,
+            char maxTileLetter ) throws IOException {
+        return readText( reader, maxTileLetter, null );
+    }
+    
+    
+    /**
+     * Lê uma fase no formato texto. As letras de 'A' até maxTileLetter são
+     * pedaços e os caracteres registrados no EntityRegistry são entidades.
+     * Os demais caracteres são ignorados. Se o registro for null, todos os 
+     * caracteres que não são espaços são entidades.
+     */
+    public static LevelData readText( BufferedReader reader,
+            char maxTileLetter, EntityRegistry entities ) throws IOException {
+        
+        ArrayList< String > lines = new ArrayList< String >();
+        int width = 0;
+        
+        while ( true ) {
+            String line = reader.readLine();
+            // sem mais linhas para ler
+            if ( line == null ) {
+                break;
+            }
+            
+            // adiciona toda linha menos os comentários
+            if ( !line.startsWith( "#" ) ) {
+                lines.add( line );
+                width = Math.max( width, line.length() );
+            }
+        }
+        
+        // interpreta as linhas
+        LevelData level = new LevelData( width, lines.size() );
+        for ( int y = 0; y < lines.size(); y++ ) {
+            String line = lines.get( y );
+            for ( int x = 0; x < line.length(); x++ ) {
+                char ch = line.charAt( x );
+                if ( ch >= 'A' && ch <= maxTileLetter ) {
+                    level.setTileId( x, y, ch - 'A' + 1 );
+                } else if ( entities != null ? entities.isRegistered( ch ) :
+                        !Character.isWhitespace( ch ) ) {
+                    level.addEntity( ch, x, y );
+                }
+            }
+        }
+        
+        return level;
+        
+    }
+    
+    
+    /**
+     * Escreve uma fase no formato binário. As sequências de pedaços iguais
+     * não passam de um chunk para o outro, de forma que cada chunk pode ser
+     * lido sozinho.
+     */
+    public static void writeBinary( LevelData level, OutputStream out )
+            throws IOException {
+        
+        DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream( out ) );
+        
+        char[] symbols = level.getEntitySymbols();
+        int chunkCount = level.getChunkCount();
+        int chunkSize = level.getTileCount() / chunkCount;
+        
+        data.writeInt( MAGIC );
+        data.writeShort( VERSION );
+        data.writeInt( level.getWidth() );
+        data.writeInt( level.getHeight() );
+        data.writeInt( symbols.length );
+        for ( char symbol : symbols ) {
+            data.writeChar( symbol );
+        }
+        data.writeInt( chunkCount );
+        
+        // conta as sequências de cada chunk e escreve a tabela dos chunks
+        int[] runCounts = new int[ chunkCount ];
+        long position = 22 + 2L * symbols.length + 8L * ( chunkCount + 1 );
+        for ( int chunk = 0; chunk <= chunkCount; chunk++ ) {
+            if ( position > Integer.MAX_VALUE ) {
+                throw new IOException( "A fase é grande demais para o " +
+                        "formato binário." );
+            }
+            data.writeInt( ( int ) position );
+            data.writeInt( chunk < chunkCount ? 
+                    level.getChunkEntityStart( chunk ) :
+                    level.getEntityCount() );
+            if ( chunk < chunkCount ) {
+                int end = ( chunk + 1 ) * chunkSize;
+                for ( int i = chunk * chunkSize; i < end; 
+                        i += getRunLength( level, i, end ) ) {
+                    runCounts[ chunk ]++;
+                }
+                int entityCount = level.getChunkEntityEnd( chunk ) -
+                        level.getChunkEntityStart( chunk );
+                position += 4 + 4L * runCounts[ chunk ] + 10L * entityCount;
+            }
+        }
+        
+        // escreve as sequências de pedaços e as entidades de cada chunk
+        for ( int chunk = 0; chunk < chunkCount; chunk++ ) {
+            
+            data.writeInt( runCounts[ chunk ] );
+            int end = ( chunk + 1 ) * chunkSize;
+            for ( int i = chunk * chunkSize; i < end; ) {
+                int length = getRunLength( level, i, end );
+                data.writeShort( level.getTile( i ) );
+                data.writeShort( length );
+                i += length;
+            }
+            
+            int entityEnd = level.getChunkEntityEnd( chunk );
+            for ( int i = level.getChunkEntityStart( chunk ); 
+                    i < entityEnd; i++ ) {
+                data.writeChar( level.getEntitySymbol( i ) );
+                data.writeInt( level.getEntityX( i ) );
+                data.writeInt( level.getEntityY( i ) );
+            }
+            
+        }
+        
+        data.flush();
+        
+    }
+    
+    
+    /**
+     * Abre uma fase no formato binário, que é lida da Source um chunk por
+     * vez. Somente o cabeçalho e a tabela dos chunks são lidos e validados 
+     * na abertura.
+     */
+    public static CompiledLevel openBinary( CompiledLevel.Source source )
+            throws IOException {
+        return new CompiledLevel( source );
+    }
+    
+    
+    /**
+     * Obtém o tamanho da sequência de pedaços iguais que começa na posição
+     * especificada, limitado a MAX_RUN e ao final do chunk.
+     */
+    private static int getRunLength( LevelData level, int start, 
+            int chunkEnd ) {
+        int end = Math.min( chunkEnd, start + MAX_RUN );
+        short tile = level.getTile( start );
+        int i = start + 1;
+        while ( i < end && level.getTile( i ) == tile ) {
+            i++;
+        }
+        return i - start;
+    }
+    
+}
@@ -0,0 +1,52 @@
+package jogo.tile;
+
+import java.io.IOException;
+
+/**
+ * Uma LevelSource fornece o conteúdo original de uma fase um chunk por vez,
+ * de forma que a fase não precisa estar inteira na memória para ser
+ * jogada. As entidades de todos os chunks são numeradas em sequência, chunk
+ * após chunk, e esse índice identifica a entidade no TileMap.
+ *
+ * @author David Buzatto
+ */
+public interface LevelSource {
+    
+    /**
+     * Obtém a largura da fase (número de pedaços).
+     */
+    public int getWidth();
+    
+    
+    /**
+     * Obtém a altura da fase (número de pedaços).
+     */
+    public int getHeight();
+    
+    
+    /**
+     * Obtém a quantidade de chunks da fase.
+     */
+    public int getChunkCount();
+    
+    
+    /**
+     * Obtém os símbolos das entidades usadas pela fase, sem repetições.
+     */
+    public char[] getEntitySymbols();
+    
+    
+    /**
+     * Lê os pedaços e as entidades de um chunk em content. Os pedaços
+     * podem ser compartilhados com a LevelSource e não devem ser alterados.
+     */
+    public void readChunk( int chunk, ChunkContent content )
+            throws IOException;
+    
+    
+    /**
+     * Libera os recursos usados pela fase, que não pode mais ser lida.
+     */
+    public void close() throws IOException;
+    
+}
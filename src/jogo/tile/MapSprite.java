@@ -0,0 +1,117 @@
+package jogo.tile;
+
+import infraestrutura.grafico.Animation;
+import infraestrutura.grafico.Sprite;
+
+/**
+ * A classe MapSprite define uma Sprite que pode ser colocada em um TileMap.
+ * Ela guarda a posição da sprite nas estruturas do mapa (a célula do
+ * SpatialGrid, a posição na SpriteBag, o chunk em que surgiu e a entidade da
+ * fase que representa), que só são usadas pelas classes deste pacote.
+ *
+ * @author David Buzatto
+ */
+public abstract class MapSprite extends Sprite {
+    
+    // célula do índice espacial em que a sprite está (-1 se em nenhuma)
+    private int cellIndex = -1;
+    
+    // posição da sprite na SpriteBag do mapa (-1 se em nenhuma)
+    private int bagIndex = -1;
+    
+    // chunk do mapa em que a sprite surgiu (-1 se em nenhum)
+    private int spawnChunk = -1;
+    
+    // entidade da fase que a sprite representa (-1 se nenhuma)
+    private int spawnEntity = -1;
+    
+    
+    /**
+     * Cria uma nova MapSprite com a animação especificada.
+     */
+    public MapSprite( Animation anim ) {
+        super( anim );
+    }
+    
+    
+    /**
+     * Volta a sprite ao estado de uma sprite recém clonada, fora de qualquer
+     * mapa.
+     */
+    public void reset() {
+        super.reset();
+        cellIndex = -1;
+        bagIndex = -1;
+        spawnChunk = -1;
+        spawnEntity = -1;
+    }
+    
+    
+    /**
+     * Obtém o índice da célula do índice espacial em que a sprite está, ou
+     * -1 se a sprite não estiver em nenhum.
+     */
+    int getCellIndex() {
+        return cellIndex;
+    }
+    
+    
+    /**
+     * Configura o índice da célula do índice espacial em que a sprite está.
+     */
+    void setCellIndex( int cellIndex ) {
+        this.cellIndex = cellIndex;
+    }
+    
+    
+    /**
+     * Obtém a posição da sprite na SpriteBag em que ela está, ou -1 se ela
+     * não estiver em nenhuma.
+     */
+    int getBagIndex() {
+        return bagIndex;
+    }
+    
+    
+    /**
+     * Configura a posição da sprite na SpriteBag em que ela está.
+     */
+    void setBagIndex( int bagIndex ) {
+        this.bagIndex = bagIndex;
+    }
+    
+    
+    /**
+     * Obtém o chunk do mapa em que a sprite surgiu, ou -1 se ela não surgiu
+     * na carga de um chunk.
+     */
+    int getSpawnChunk() {
+        return spawnChunk;
+    }
+    
+    
+    /**
+     * Configura o chunk do mapa em que a sprite surgiu.
+     */
+    void setSpawnChunk( int spawnChunk ) {
+        this.spawnChunk = spawnChunk;
+    }
+    
+    
+    /**
+     * Obtém o índice da entidade da fase que a sprite representa, ou -1 se
+     * ela não representa nenhuma.
+     */
+    int getSpawnEntity() {
+        return spawnEntity;
+    }
+    
+    
+    /**
+     * Configura o índice da entidade da fase que a sprite representa.
+     */
+    void setSpawnEntity( int spawnEntity ) {
+        this.spawnEntity = spawnEntity;
+    }
+    
+}
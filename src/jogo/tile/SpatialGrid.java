@@ -0,0 +1,246 @@
+package jogo.tile;
+
+import java.util.List;
+
+/**
+ * A classe SpatialGrid é um índice espacial de Sprites baseado em uma grade
+ * uniforme. Cada célula da grade cobre CELL_SIZE x CELL_SIZE tiles e guarda as
+ * Sprites cujo canto superior esquerdo está dentro dela. As consultas
+ * verificam somente as células próximas da área consultada, ao invés de
+ * todas as Sprites do mapa.
+ *
+ * <p>As Sprites precisam ser menores que uma célula. Sprites fora do mapa são
+ * guardadas nas células da borda.
+ *
+ * <p>Quando uma Sprite se move, moveSprite() deve ser chamado para que ela
+ * mude de célula se necessário.
+ *
+ * @author David Buzatto
+ */
+public class SpatialGrid {
+    
+    // o tamanho em bits da célula, em tiles
+    // Math.pow( 2, CELL_SIZE_BITS ) == CELL_SIZE
+    private static final int CELL_SIZE_BITS = 2;
+    
+    /**
+     * Tamanho da célula, em tiles.
+     */
+    public static final int CELL_SIZE = 1 << CELL_SIZE_BITS;
+    
+    /**
+     * Tamanho da célula, em pixels.
+     */
+    public static final int CELL_PIXELS =
+            TileMapRenderer.tilesToPixels( CELL_SIZE );
+    
+    private Cell[] cells;
+    private int columns;
+    private int rows;
+    
+    
+    /**
+     * Cria um SpatialGrid para um mapa com a largura e altura
+     * especificadas (em número de tiles).
+     */
+    public SpatialGrid( int mapWidth, int mapHeight ) {
+        columns = Math.max( 1, ( mapWidth + CELL_SIZE - 1 ) >> CELL_SIZE_BITS );
+        rows = Math.max( 1, ( mapHeight + CELL_SIZE - 1 ) >> CELL_SIZE_BITS );
+        cells = new Cell[ columns * rows ];
+    }
+    
+    
+    /**
+     * Adiciona uma Sprite na grade.
+     */
+    public void add( MapSprite sprite ) {
+        int index = getCellIndex( sprite.getX(), sprite.getY() );
+        getCell( index ).add( sprite );
+        sprite.setCellIndex( index );
+    }
+    
+    
+    /**
+     * Remove uma Sprite da grade.
+     */
+    public void remove( MapSprite sprite ) {
+        int index = sprite.getCellIndex();
+        if ( index >= 0 ) {
+            cells[ index ].remove( sprite );
+            sprite.setCellIndex( -1 );
+        }
+    }
+    
+    
+    /**
+     * Atualiza a célula de uma Sprite após a mesma ter se movido.
+     */
+    public void moveSprite( MapSprite sprite ) {
+        int oldIndex = sprite.getCellIndex();
+        int newIndex = getCellIndex( sprite.getX(), sprite.getY() );
+        if ( oldIndex != newIndex && oldIndex >= 0 ) {
+            cells[ oldIndex ].remove( sprite );
+            getCell( newIndex ).add( sprite );
+            sprite.setCellIndex( newIndex );
+        }
+    }
+    
+    
+    /**
+     * Adiciona em result as Sprites cujos limites interceptam o retângulo
+     * especificado (em pixels).
+     */
+    public void query( float x, float y, float width, float height,
+            List< ? super MapSprite > result ) {
+        
+        // as sprites são indexadas pelo canto superior esquerdo, então
+        // sprites da célula anterior podem alcançar a área
+        int fromColumn = getColumn( x - CELL_PIXELS );
+        int toColumn = getColumn( x + width );
+        int fromRow = getRow( y - CELL_PIXELS );
+        int toRow = getRow( y + height );
+        
+        for ( int row = fromRow; row <= toRow; row++ ) {
+            for ( int column = fromColumn; column <= toColumn; column++ ) {
+                
+                Cell cell = cells[ row * columns + column ];
+                if ( cell == null ) {
+                    continue;
+                }
+                
+                for ( int i = 0; i < cell.size; i++ ) {
+                    MapSprite sprite = cell.sprites[ i ];
+                    if ( sprite.getX() < x + width &&
+                            x < sprite.getX() + sprite.getWidth() &&
+                            sprite.getY() < y + height &&
+                            y < sprite.getY() + sprite.getHeight() ) {
+                        result.add( sprite );
+                    }
+                }
+                
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Adiciona em result as Sprites cujos limites interceptam o círculo
+     * com centro e raio especificados (em pixels).
+     */
+    public void query( float centerX, float centerY, float radius,
+            List< ? super MapSprite > result ) {
+        
+        int fromColumn = getColumn( centerX - radius - CELL_PIXELS );
+        int toColumn = getColumn( centerX + radius );
+        int fromRow = getRow( centerY - radius - CELL_PIXELS );
+        int toRow = getRow( centerY + radius );
+        float radiusSq = radius * radius;
+        
+        for ( int row = fromRow; row <= toRow; row++ ) {
+            for ( int column = fromColumn; column <= toColumn; column++ ) {
+                
+                Cell cell = cells[ row * columns + column ];
+                if ( cell == null ) {
+                    continue;
+                }
+                
+                for ( int i = 0; i < cell.size; i++ ) {
+                    
+                    MapSprite sprite = cell.sprites[ i ];
+                    
+                    // ponto da sprite mais próximo do centro do círculo
+                    float nearestX = Math.max( sprite.getX(), Math.min(
+                            centerX, sprite.getX() + sprite.getWidth() ) );
+                    float nearestY = Math.max( sprite.getY(), Math.min(
+                            centerY, sprite.getY() + sprite.getHeight() ) );
+                    float dx = centerX - nearestX;
+                    float dy = centerY - nearestY;
+                    
+                    if ( dx * dx + dy * dy <= radiusSq ) {
+                        result.add( sprite );
+                    }
+                    
+                }
+                
+            }
+        }
+        
+    }
+    
+    
+    /**
+     * Obtém a coluna da grade de uma posição x em pixels, limitada à grade.
+     */
+    private int getColumn( float x ) {
+        int column = TileMapRenderer.pixelsToTiles( x ) >> CELL_SIZE_BITS;
+        return Math.max( 0, Math.min( column, columns - 1 ) );
+    }
+    
+    
+    /**
+     * Obtém a linha da grade de uma posição y em pixels, limitada à grade.
+     */
+    private int getRow( float y ) {
+        int row = TileMapRenderer.pixelsToTiles( y ) >> CELL_SIZE_BITS;
+        return Math.max( 0, Math.min( row, rows - 1 ) );
+    }
+    
+    
+    /**
+     * Obtém o índice da célula de uma posição em pixels.
+     */
+    private int getCellIndex( float x, float y ) {
+        return getRow( y ) * columns + getColumn( x );
+    }
+    
+    
+    /**
+     * Obtém a célula de um índice, criando-a se necessário.
+     */
+    private Cell getCell( int index ) {
+        Cell cell = cells[ index ];
+        if ( cell == null ) {
+            cell = new Cell();
+            cells[ index ] = cell;
+        }
+        return cell;
+    }
+    
+    
+    /**
+     * Classe interna privada que modela uma célula da grade.
+     */
+    private static class Cell {
+        
+        MapSprite[] sprites = new MapSprite[ 4 ];
+        int size;
+        
+        /**
+         * Adiciona uma Sprite na célula.
+         */
+        void add( MapSprite sprite ) {
+            if ( size == sprites.length ) {
+                MapSprite[] newSprites = new MapSprite[ size * 2 ];
+                System.arraycopy( sprites, 0, newSprites, 0, size );
+                sprites = newSprites;
+            }
+            sprites[ size++ ] = sprite;
+        }
+        
+        /**
+         * Remove uma Sprite da célula, colocando a última em seu lugar.
+         */
+        void remove( MapSprite sprite ) {
+            for ( int i = 0; i < size; i++ ) {
+                if ( sprites[ i ] == sprite ) {
+                    sprites[ i ] = sprites[ --size ];
+                    sprites[ size ] = null;
+                    return;
+                }
+            }
+        }
+        
+    }
+    
+}
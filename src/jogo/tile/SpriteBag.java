@@ -0,0 +1,77 @@
+package jogo.tile;
+
+/**
+ * A classe SpriteBag guarda Sprites em um array, sem ordem definida. A
+ * remoção coloca a última Sprite no lugar da removida, usando o índice que
+ * cada Sprite guarda de sua posição na SpriteBag, e por isso é feita em
+ * tempo constante. As Sprites são percorridas pelo índice, de zero até
+ * size() - 1, sem criar nenhum objeto.
+ *
+ * <p>Uma Sprite só pode estar em uma SpriteBag por vez.
+ *
+ * @author David Buzatto
+ */
+public class SpriteBag {
+    
+    private MapSprite[] sprites = new MapSprite[ 16 ];
+    private int size;
+    
+    
+    /**
+     * Adiciona uma Sprite.
+     */
+    public void add( MapSprite sprite ) {
+        if ( size == sprites.length ) {
+            MapSprite[] newSprites = new MapSprite[ size * 2 ];
+            System.arraycopy( sprites, 0, newSprites, 0, size );
+            sprites = newSprites;
+        }
+        sprite.setBagIndex( size );
+        sprites[ size++ ] = sprite;
+    }
+    
+    
+    /**
+     * Remove uma Sprite, colocando a última em seu lugar.
+     */
+    public void remove( MapSprite sprite ) {
+        
+        if ( !contains( sprite ) ) {
+            return;
+        }
+        
+        int index = sprite.getBagIndex();
+        MapSprite last = sprites[ --size ];
+        sprites[ index ] = last;
+        last.setBagIndex( index );
+        sprites[ size ] = null;
+        sprite.setBagIndex( -1 );
+        
+    }
+    
+    
+    /**
+     * Verifica se a Sprite está nessa SpriteBag.
+     */
+    public boolean contains( MapSprite sprite ) {
+        int index = sprite.getBagIndex();
+        return index >= 0 && index < size && sprites[ index ] == sprite;
+    }
+    
+    
+    /**
+     * Obtém a Sprite de um índice.
+     */
+    public MapSprite get( int index ) {
+        return sprites[ index ];
+    }
+    
+    
+    /**
+     * Obtém a quantidade de Sprites.
+     */
+    public int size() {
+        return size;
+    }
+    
+}
@@ -1,6 +1,7 @@
 package jogo.tile;
 
 import infraestrutura.grafico.*;
+import java.awt.Graphics;
 import java.awt.Image;
 import java.io.*;
 import java.util.*;
@@ -8,24 +9,121 @@ import java.util.*;
 /**
  * A classe TileMap contém a informação para um pequeno mapa de figuras
  * lado a lado, incluindo Sprites.
- * Cada pedaço é uma referência a uma imagem, sendo essas imagens usadas
- * múltiplas vezes no mesmo mapa.
+ * Cada pedaço é guardado como um identificador numérico em um array de 
+ * shorts, linha por linha. O identificador é o índice da imagem do pedaço
+ * na paleta do mapa, sendo que o identificador 0 indica um pedaço vazio. 
+ * Assim, as imagens são usadas múltiplas vezes no mesmo mapa e cada pedaço 
+ * ocupa somente dois bytes.
+ *
+ * <p>Os pedaços são divididos em chunks de CHUNK_WIDTH colunas. Um TileMap
+ * criado com uma ChunkSource carrega seus chunks sob demanda, através de
+ * updateLoadedChunks(), conforme a câmera se aproxima deles, e descarta os
+ * chunks que ficaram longe junto com as sprites que surgiram neles. Assim,
+ * a quantidade de sprites ativas depende somente da região próxima da 
+ * câmera e não do tamanho da fase. Os pedaços de um chunk carregado podem
+ * ser compartilhados com a ChunkSource, sem cópia, e só são copiados 
+ * quando um deles é alterado.
+ *
+ * <p>Um chunk descartado é recarregado com seu conteúdo original, menos as
+ * entidades que o jogo removeu do mapa (moedas pegas, inimigos mortos). O 
+ * TileMap registra essas entidades, pelo índice recebido em addSprite(), e
+ * a ChunkSource as ignora com isEntityRemoved().
  *
  * @author David Buzatto
  */
 public class TileMap {
     
-    private Image[][] tiles;
-    private LinkedList< Sprite > sprites;
+    /**
+     * Identificador do pedaço vazio.
+     */
+    public static final int EMPTY_TILE = 0;
+    
+    // o tamanho em bits do chunk, em colunas
+    // Math.pow( 2, CHUNK_WIDTH_BITS ) == CHUNK_WIDTH
+    private static final int CHUNK_WIDTH_BITS = 6;
+    
+    /**
+     * Largura de um chunk, em número de pedaços.
+     */
+    public static final int CHUNK_WIDTH = 1 << CHUNK_WIDTH_BITS;
+    
+    // quantidade de chunks carregados antes de aparecerem na tela
+    private static final int LOAD_MARGIN = 1;
+    
+    // chunks mais distantes da tela do que isso são descartados
+    private static final int EVICT_DISTANCE = 2;
+    
+    // pedaços de cada chunk, linha por linha (null se não estiver carregado)
+    private short[][] chunks;
+    
+    // indica se os pedaços do chunk são compartilhados com a ChunkSource
+    private boolean[] sharedChunks;
+    
+    // sprites que surgiram em cada chunk
+    private List< List< MapSprite > > chunkSprites;
+    
+    // versão de cada chunk, incrementada sempre que seus pedaços mudam
+    private int[] chunkVersions;
+    
+    private ChunkSource source;
+    private int loadingChunk = -1;
+    private Image[] palette;
+    private AtlasRegion[] paletteRegions;
+    private int width;
+    private int height;
+    private SpriteBag sprites;
+    private SpatialGrid grid;
     private Sprite player;
     
+    // entidades removidas pelo jogo, que não voltam quando seus chunks são
+    // recarregados
+    private BitSet removedEntities;
+    
     /**
      * Cria um novo TileMap com a largura e altura especificada
-     * (em número de pedaços) do mapa.
+     * (em número de pedaços) do mapa e uma paleta vazia.
      */
     public TileMap( int width, int height ) {
-        tiles = new Image[ width ][ height ];
-        sprites = new LinkedList< Sprite >();
+        this( width, height, new Image[] { null } );
+    }
+    
+    
+    /**
+     * Cria um novo TileMap com a largura e altura especificada
+     * (em número de pedaços) do mapa e a paleta de imagens dos pedaços. A
+     * posição EMPTY_TILE da paleta é ignorada.
+     */
+    public TileMap( int width, int height, Image[] palette ) {
+        this( width, height, palette, null );
+        for ( int i = 0; i < chunks.length; i++ ) {
+            chunks[ i ] = new short[ CHUNK_WIDTH * height ];
+        }
+    }
+    
+    
+    /**
+     * Cria um novo TileMap com a largura e altura especificada
+     * (em número de pedaços) do mapa e a paleta de imagens dos pedaços, cujos
+     * chunks são carregados sob demanda a partir da ChunkSource. A posição
+     * EMPTY_TILE da paleta é ignorada.
+     */
+    public TileMap( int width, int height, Image[] palette, 
+            ChunkSource source ) {
+        this.width = width;
+        this.height = height;
+        this.palette = palette;
+        this.source = source;
+        int chunkCount = ( width + CHUNK_WIDTH - 1 ) >> CHUNK_WIDTH_BITS;
+        chunks = new short[ chunkCount ][];
+        sharedChunks = new boolean[ chunkCount ];
+        chunkSprites = new ArrayList< List< MapSprite > >( chunkCount );
+        for ( int i = 0; i < chunkCount; i++ ) {
+            chunkSprites.add( null );
+        }
+        chunkVersions = new int[ chunkCount ];
+        sprites = new SpriteBag();
+        grid = new SpatialGrid( width, height );
+        removedEntities = new BitSet();
     }
     
     
@@ -33,14 +131,14 @@ public class TileMap {
      * Obtém a largura do TileMap (número de pedaços).
      */
     public int getWidth() {
-        return tiles.length;
+        return width;
     }
     
     /**
      * Obtém a altura do TileMap (número de pedaços).
      */
     public int getHeight() {
-        return tiles[ 0 ].length;
+        return height;
     }
     
     
@@ -50,20 +148,278 @@ public class TileMap {
      * localizaçãono for fora dos limites do mapa.
      */
     public Image getTile( int x, int y ) {
-        if ( x < 0 || x >= getWidth() ||
-                y < 0 || y >= getHeight() ) {
-            return null;
-        } else {
-            return tiles[ x ][ y ];
+        return palette[ getTileId( x, y ) ];
+    }
+    
+    
+    /**
+     * Obtém o identificador do pedaço de uma localização específica. Retorna
+     * EMPTY_TILE se não houver nenhum pedaço na localização especificada ou
+     * então se a localização for fora dos limites do mapa.
+     */
+    public int getTileId( int x, int y ) {
+        if ( x < 0 || x >= width ||
+                y < 0 || y >= height ) {
+            return EMPTY_TILE;
+        }
+        short[] chunk = chunks[ x >> CHUNK_WIDTH_BITS ];
+        if ( chunk == null ) {
+            return EMPTY_TILE;
+        }
+        return chunk[ ( y << CHUNK_WIDTH_BITS ) | ( x & ( CHUNK_WIDTH - 1 ) ) ];
+    }
+    
+    
+    /**
+     * Verifica se o pedaço de uma localização específica é sólido. As
+     * colunas fora do mapa e as colunas de chunks não carregados são 
+     * sólidas, assim as criaturas não saem da região carregada. As linhas 
+     * acima e abaixo do mapa não são sólidas.
+     */
+    public boolean isSolid( int x, int y ) {
+        if ( x < 0 || x >= width ) {
+            return true;
         }
+        short[] chunk = chunks[ x >> CHUNK_WIDTH_BITS ];
+        if ( chunk == null ) {
+            return true;
+        }
+        if ( y < 0 || y >= height ) {
+            return false;
+        }
+        return chunk[ ( y << CHUNK_WIDTH_BITS ) | 
+                ( x & ( CHUNK_WIDTH - 1 ) ) ] != EMPTY_TILE;
+    }
+    
+    
+    /**
+     * Configura o identificador do pedaço no local especificado. Se os 
+     * pedaços do chunk forem compartilhados, o chunk é copiado antes.
+     */
+    public void setTileId( int x, int y, int id ) {
+        int chunk = x >> CHUNK_WIDTH_BITS;
+        if ( chunks[ chunk ] == null ) {
+            chunks[ chunk ] = new short[ CHUNK_WIDTH * height ];
+        } else if ( sharedChunks[ chunk ] ) {
+            setChunkTiles( chunk, chunks[ chunk ], 0 );
+        }
+        chunks[ chunk ][ ( y << CHUNK_WIDTH_BITS ) | 
+                ( x & ( CHUNK_WIDTH - 1 ) ) ] = ( short ) id;
+        chunkVersions[ chunk ]++;
+    }
+    
+    
+    /**
+     * Configura todos os pedaços de um chunk, copiando-os de um array a 
+     * partir da posição especificada, linha por linha.
+     */
+    public void setChunkTiles( int chunk, short[] tiles, int offset ) {
+        chunks[ chunk ] = Arrays.copyOfRange( tiles, offset, 
+                offset + CHUNK_WIDTH * height );
+        sharedChunks[ chunk ] = false;
+        chunkVersions[ chunk ]++;
     }
     
     
     /**
-     * Configura o pedaço no local especificado.
+     * Configura todos os pedaços de um chunk compartilhando, sem cópia, um
+     * array com CHUNK_WIDTH * altura pedaços, linha por linha. O TileMap não
+     * altera o array: as alterações dos pedaços do chunk são feitas em uma
+     * cópia.
+     */
+    public void shareChunkTiles( int chunk, short[] tiles ) {
+        chunks[ chunk ] = tiles;
+        sharedChunks[ chunk ] = true;
+        chunkVersions[ chunk ]++;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de chunks do mapa.
+     */
+    public int getChunkCount() {
+        return chunks.length;
+    }
+    
+    
+    /**
+     * Verifica se um chunk está carregado.
+     */
+    public boolean isChunkLoaded( int chunk ) {
+        return chunks[ chunk ] != null;
+    }
+    
+    
+    /**
+     * Obtém a versão de um chunk. A versão muda sempre que um pedaço do 
+     * chunk é alterado ou quando o chunk é carregado ou descartado, 
+     * permitindo que cópias dos pedaços sejam invalidadas.
+     */
+    public int getChunkVersion( int chunk ) {
+        return chunkVersions[ chunk ];
+    }
+    
+    
+    /**
+     * Obtém o chunk de uma coluna.
+     */
+    public static int tilesToChunks( int tileX ) {
+        return tileX >> CHUNK_WIDTH_BITS;
+    }
+    
+    
+    /**
+     * Carrega os chunks próximos das colunas visíveis especificadas e 
+     * descarta os que ficaram distantes. Não faz nada se o mapa não for 
+     * carregado sob demanda.
+     */
+    public void updateLoadedChunks( int firstTileX, int lastTileX ) {
+        
+        if ( source == null ) {
+            return;
+        }
+        
+        int first = tilesToChunks( Math.max( firstTileX, 0 ) );
+        int last = tilesToChunks( Math.min( lastTileX, width - 1 ) );
+        
+        // carrega os chunks visíveis e os próximos
+        int from = Math.max( first - LOAD_MARGIN, 0 );
+        int to = Math.min( last + LOAD_MARGIN, chunks.length - 1 );
+        for ( int chunk = from; chunk <= to; chunk++ ) {
+            if ( chunks[ chunk ] == null ) {
+                loadChunk( chunk );
+            }
+        }
+        
+        // descarta os chunks distantes
+        for ( int chunk = first - EVICT_DISTANCE - 1; 
+                chunk >= 0 && chunks[ chunk ] != null; chunk-- ) {
+            evictChunk( chunk );
+        }
+        for ( int chunk = last + EVICT_DISTANCE + 1; 
+                chunk < chunks.length && chunks[ chunk ] != null; chunk++ ) {
+            evictChunk( chunk );
+        }
+        
+    }
+    
+    
+    /**
+     * Carrega um chunk a partir da ChunkSource. Um chunk cujos pedaços não
+     * foram configurados pela ChunkSource fica vazio.
+     */
+    private void loadChunk( int chunk ) {
+        chunkSprites.set( chunk, new ArrayList< MapSprite >() );
+        loadingChunk = chunk;
+        source.loadChunk( this, chunk );
+        loadingChunk = -1;
+        if ( chunks[ chunk ] == null ) {
+            chunks[ chunk ] = new short[ CHUNK_WIDTH * height ];
+            chunkVersions[ chunk ]++;
+        }
+    }
+    
+    
+    /**
+     * Descarta um chunk, removendo do mapa as sprites que surgiram nele e as
+     * que estão dentro dele.
+     */
+    private void evictChunk( int chunk ) {
+        
+        List< MapSprite > spawned = chunkSprites.set( chunk, null );
+        for ( MapSprite sprite : spawned ) {
+            detachSprite( sprite );
+        }
+        
+        ArrayList< MapSprite > inside = new ArrayList< MapSprite >();
+        grid.query( TileMapRenderer.tilesToPixels( chunk << CHUNK_WIDTH_BITS ), 
+                -Float.MAX_VALUE / 2,
+                TileMapRenderer.tilesToPixels( CHUNK_WIDTH ),
+                Float.MAX_VALUE, inside );
+        for ( MapSprite sprite : inside ) {
+            if ( tilesToChunks( TileMapRenderer.pixelsToTiles( 
+                    sprite.getX() ) ) == chunk ) {
+                detachSprite( sprite );
+            }
+        }
+        
+        chunks[ chunk ] = null;
+        sharedChunks[ chunk ] = false;
+        chunkVersions[ chunk ]++;
+        
+    }
+    
+    
+    /**
+     * Configura o pedaço no local especificado. Se a imagem não estiver na 
+     * paleta, a mesma é adicionada.
      */
     public void setTile( int x, int y, Image tile ) {
-        tiles[ x ][ y ] = tile;
+        setTileId( x, y, getPaletteId( tile ) );
+    }
+    
+    
+    /**
+     * Obtém a paleta de imagens dos pedaços, indexada pelo identificador.
+     */
+    public Image[] getPalette() {
+        return palette;
+    }
+    
+    
+    /**
+     * Configura as regiões das imagens da paleta em um TextureAtlas, 
+     * indexadas pelo identificador. Os pedaços cujas imagens não têm região
+     * são desenhados a partir da própria imagem.
+     */
+    public void setPaletteRegions( AtlasRegion[] paletteRegions ) {
+        this.paletteRegions = paletteRegions;
+    }
+    
+    
+    /**
+     * Obtém as regiões das imagens da paleta, ou null se não houver.
+     */
+    public AtlasRegion[] getPaletteRegions() {
+        return paletteRegions;
+    }
+    
+    
+    /**
+     * Desenha a imagem do pedaço com o identificador especificado, com o 
+     * canto superior esquerdo na posição especificada, a partir do atlas 
+     * quando a imagem tiver uma região nele.
+     */
+    public void drawTile( Graphics g, int tile, int x, int y ) {
+        if ( paletteRegions != null && tile < paletteRegions.length &&
+                paletteRegions[ tile ] != null ) {
+            paletteRegions[ tile ].draw( g, x, y );
+        } else {
+            g.drawImage( palette[ tile ], x, y, null );
+        }
+    }
+    
+    
+    /**
+     * Obtém o identificador de uma imagem na paleta, adicionando a imagem
+     * na paleta se necessário.
+     */
+    private int getPaletteId( Image tile ) {
+        
+        if ( tile == null ) {
+            return EMPTY_TILE;
+        }
+        
+        for ( int i = 1; i < palette.length; i++ ) {
+            if ( palette[ i ] == tile ) {
+                return i;
+            }
+        }
+        
+        palette = Arrays.copyOf( palette, palette.length + 1 );
+        palette[ palette.length - 1 ] = tile;
+        return palette.length - 1;
+        
     }
     
     
@@ -86,24 +442,115 @@ public class TileMap {
     /**
      * Adiciona a Sprite no mapa.
      */
-    public void addSprite( Sprite sprite ) {
+    public void addSprite( MapSprite sprite ) {
         sprites.add( sprite );
+        grid.add( sprite );
+        if ( loadingChunk >= 0 ) {
+            chunkSprites.get( loadingChunk ).add( sprite );
+            sprite.setSpawnChunk( loadingChunk );
+        }
+    }
+    
+    
+    /**
+     * Adiciona no mapa a Sprite de uma entidade da fase, identificada pelo 
+     * seu índice na ChunkSource. Se a Sprite for removida do mapa com
+     * removeSprite(), a entidade passa a ser considerada removida.
+     */
+    public void addSprite( MapSprite sprite, int entity ) {
+        addSprite( sprite );
+        sprite.setSpawnEntity( entity );
+    }
+    
+    
+    /**
+     * Verifica se a entidade com o índice especificado foi removida do mapa
+     * pelo jogo, caso em que ela não deve ser recriada quando seu chunk for
+     * recarregado.
+     */
+    public boolean isEntityRemoved( int entity ) {
+        return removedEntities.get( entity );
+    }
+    
+    
+    /**
+     * Remove a Sprite do mapa. Se a Sprite for de uma entidade da fase, a
+     * entidade é registrada como removida e não volta quando seu chunk for
+     * recarregado. A Sprite também deixa de pertencer ao chunk em que 
+     * surgiu, podendo ser reaproveitada em outro lugar sem ser removida 
+     * quando esse chunk for descartado.
+     */
+    public void removeSprite( MapSprite sprite ) {
+        if ( sprite.getSpawnEntity() >= 0 ) {
+            removedEntities.set( sprite.getSpawnEntity() );
+        }
+        detachSprite( sprite );
+    }
+    
+    
+    /**
+     * Tira a Sprite do mapa e do chunk em que ela surgiu, sem registrar sua
+     * entidade como removida.
+     */
+    private void detachSprite( MapSprite sprite ) {
+        if ( sprite.getCellIndex() >= 0 ) {
+            sprites.remove( sprite );
+            grid.remove( sprite );
+        }
+        int chunk = sprite.getSpawnChunk();
+        if ( chunk >= 0 ) {
+            List< MapSprite > spawned = chunkSprites.get( chunk );
+            if ( spawned != null ) {
+                spawned.remove( sprite );
+            }
+            sprite.setSpawnChunk( -1 );
+        }
+        sprite.setSpawnEntity( -1 );
+    }
+    
+    
+    /**
+     * Atualiza o índice espacial após a Sprite ter se movido.
+     */
+    public void moveSprite( MapSprite sprite ) {
+        grid.moveSprite( sprite );
+    }
+    
+    
+    /**
+     * Adiciona em result as Sprites desse mapa (menos a do jogador) que 
+     * interceptam o retângulo especificado, em pixels.
+     */
+    public void getSprites( float x, float y, float width, float height,
+            List< ? super MapSprite > result ) {
+        grid.query( x, y, width, height, result );
+    }
+    
+    
+    /**
+     * Adiciona em result as Sprites desse mapa (menos a do jogador) que 
+     * interceptam o círculo especificado, em pixels.
+     */
+    public void getSprites( float centerX, float centerY, float radius,
+            List< ? super MapSprite > result ) {
+        grid.query( centerX, centerY, radius, result );
     }
     
     
     /**
-     * Remove a Sprite do mapa.
+     * Obtém a quantidade de Sprites do mapa, sem contar o jogador.
      */
-    public void removeSprite( Sprite sprite ) {
-        sprites.remove( sprite );
+    public int getSpriteCount() {
+        return sprites.size();
     }
     
     
     /**
-     * Obtém o Iterator de todas as Sprites desse mapa, menos a do jogador.
+     * Obtém a Sprite de um índice, entre zero e getSpriteCount() - 1. A
+     * ordem das Sprites muda quando Sprites são removidas.
      */
-    public Iterator getSprites() {
-        return sprites.iterator();
+    public MapSprite getSprite( int index ) {
+        return sprites.get( index );
     }
     
-}
\ No newline at end of file
+}
@@ -2,9 +2,8 @@ package jogo.tile;
 
 import infraestrutura.grafico.*;
 import java.awt.*;
-import java.util.Iterator;
+import java.util.ArrayList;
 import javax.swing.JFrame;
-import jogo.sprites.*;
 
 /**
  * A classe TileMapRenderer desenha um TileMap na tela.
@@ -29,6 +28,15 @@ public class TileMapRenderer {
     private static final int TILE_SIZE_BITS = 5;
     
     private Image background;
+    private TileStripCache tileCache = new TileStripCache();
+    private boolean tileCacheEnabled = true;
+    
+    // margem, em pixels, da área em que as sprites são desenhadas
+    private static final int CULL_MARGIN = TILE_SIZE;
+    
+    private ArrayList< Sprite > visibleSprites = new ArrayList< Sprite >();
+    private int spritesDrawn;
+    private int spritesCulled;
     
     /**
      * Converte uma posição em pixel para a posição de um tile.
@@ -65,6 +73,19 @@ public class TileMapRenderer {
     }
     
     
+    /**
+     * Obtém a posição de scrolling horizontal do mapa (o deslocamento, em 
+     * pixels, aplicado em tudo o que é desenhado) para uma tela com a 
+     * largura especificada, centralizando a posição x do jogador.
+     */
+    public static int getOffsetX( TileMap map, int screenWidth, 
+            float playerX ) {
+        int offsetX = screenWidth / 2 - Math.round( playerX ) - TILE_SIZE;
+        offsetX = Math.min( offsetX, 0 );
+        return Math.max( offsetX, screenWidth - tilesToPixels( map.getWidth() ) );
+    }
+    
+    
     /**
      * Configura o fundo para desenhar.
      */
@@ -73,20 +94,58 @@ public class TileMapRenderer {
     }
     
     
+    /**
+     * Configura se os pedaços serão desenhados usando faixas pré-desenhadas
+     * quando o destino suportar.
+     */
+    public void setTileCacheEnabled( boolean tileCacheEnabled ) {
+        this.tileCacheEnabled = tileCacheEnabled;
+        if ( !tileCacheEnabled ) {
+            tileCache.flush();
+        }
+    }
+    
+    
+    /**
+     * Obtém a quantidade de sprites, sem contar o jogador, desenhadas no 
+     * último quadro.
+     */
+    public int getSpritesDrawn() {
+        return spritesDrawn;
+    }
+    
+    
+    /**
+     * Obtém a quantidade de sprites que não foram desenhadas no último 
+     * quadro por estarem fora da tela.
+     */
+    public int getSpritesCulled() {
+        return spritesCulled;
+    }
+    
+    
     /**
      * Desenha o TileMap especificado.
      */
     public void draw( Graphics2D g, TileMap map,
             int screenWidth, int screenHeight ) {
+        draw( g, map, screenWidth, screenHeight, 1 );
+    }
+    
+    
+    /**
+     * Desenha o TileMap especificado, interpolando a posição das sprites
+     * entre o passo de simulação anterior e o atual usando alpha.
+     */
+    public void draw( Graphics2D g, TileMap map,
+            int screenWidth, int screenHeight, float alpha ) {
         
         Sprite player = map.getPlayer();
         int mapWidth = tilesToPixels( map.getWidth() );
         
         // obtém a posição de scrolling do mapa, baseado na posição do jogador
-        int offsetX = screenWidth / 2 -
-                Math.round( player.getX() ) - TILE_SIZE;
-        offsetX = Math.min( offsetX, 0 );
-        offsetX = Math.max( offsetX, screenWidth - mapWidth );
+        int offsetX = getOffsetX( map, screenWidth, 
+                player.getInterpolatedX( alpha ) );
         
         // obtém o offset de y para desenhar todas as sprites e tiles
         int offsetY = screenHeight -
@@ -113,39 +172,55 @@ public class TileMapRenderer {
         int firstTileX = pixelsToTiles( -offsetX );
         int lastTileX = firstTileX +
                 pixelsToTiles( screenWidth ) + 1;
-        for ( int y = 0; y < map.getHeight(); y++ ) {
-            for ( int x = firstTileX; x <= lastTileX; x++ ) {
-                Image image = map.getTile( x, y );
-                if ( image != null ) {
-                    g.drawImage( image,
-                            tilesToPixels( x ) + offsetX,
-                            tilesToPixels( y ) + offsetY,
-                            null );
-                }
-            }
+        map.updateLoadedChunks( firstTileX, lastTileX );
+        if ( tileCacheEnabled && TileStripCache.isSupported( g ) ) {
+            tileCache.draw( g, map, firstTileX, lastTileX, offsetX, offsetY );
+        } else {
+            drawTiles( g, map, firstTileX, lastTileX, offsetX, offsetY );
         }
         
         // desenha o jogador
-        g.drawImage( player.getImage(),
-                Math.round( player.getX() ) + offsetX,
-                Math.round( player.getY() ) + offsetY,
-                null );
+        player.draw( g,
+                Math.round( player.getInterpolatedX( alpha ) ) + offsetX,
+                Math.round( player.getInterpolatedY( alpha ) ) + offsetY );
         
-        // desenha as sprites
-        Iterator i = map.getSprites();
-        while ( i.hasNext() ) {
-            Sprite sprite = ( Sprite ) i.next();
-            int x = Math.round( sprite.getX() ) + offsetX;
-            int y = Math.round( sprite.getY() ) + offsetY;
-            g.drawImage( sprite.getImage(), x, y, null );
-            
-            // acorda a critura quando a mesma estiver na tela
-            if ( sprite instanceof Creature &&
-                    x >= 0 && x < screenWidth ) {
-                ( ( Creature ) sprite ).wakeUp();
+        // desenha somente as sprites visíveis, obtidas do índice espacial
+        // do mapa com uma margem para a interpolação
+        map.getSprites( -offsetX - CULL_MARGIN, -offsetY - CULL_MARGIN,
+                screenWidth + CULL_MARGIN * 2, screenHeight + CULL_MARGIN * 2,
+                visibleSprites );
+        
+        for ( int i = 0; i < visibleSprites.size(); i++ ) {
+            Sprite sprite = visibleSprites.get( i );
+            int x = Math.round( sprite.getInterpolatedX( alpha ) ) + offsetX;
+            int y = Math.round( sprite.getInterpolatedY( alpha ) ) + offsetY;
+            sprite.draw( g, x, y );
+        }
+        
+        spritesDrawn = visibleSprites.size();
+        spritesCulled = map.getSpriteCount() - spritesDrawn;
+        visibleSprites.clear();
+        
+    }
+    
+    
+    /**
+     * Desenha os pedaços visíveis um a um.
+     */
+    private void drawTiles( Graphics2D g, TileMap map, 
+            int firstTileX, int lastTileX, int offsetX, int offsetY ) {
+        
+        for ( int y = 0; y < map.getHeight(); y++ ) {
+            for ( int x = firstTileX; x <= lastTileX; x++ ) {
+                int tile = map.getTileId( x, y );
+                if ( tile != TileMap.EMPTY_TILE ) {
+                    map.drawTile( g, tile,
+                            tilesToPixels( x ) + offsetX,
+                            tilesToPixels( y ) + offsetY );
+                }
             }
         }
         
     }
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package jogo.tile;
+
+import java.awt.*;
+import java.awt.image.VolatileImage;
+
+/**
+ * A classe TileStripCache guarda os pedaços de um TileMap pré-desenhados em
+ * faixas de STRIP_WIDTH colunas, permitindo que a camada de pedaços, que
+ * quase nunca muda, seja desenhada com poucas chamadas a drawImage() por
+ * quadro ao invés de uma chamada por pedaço.
+ *
+ * <p>As faixas são VolatileImages quando há aceleração gráfica disponível,
+ * sendo redesenhadas quando o conteúdo é perdido, e BufferedImages caso
+ * contrário. Uma faixa é redesenhada quando a versão do
+ * chunk que a contém muda. Somente as MAX_STRIPS faixas usadas mais
+ * recentemente são mantidas.
+ *
+ * @author David Buzatto
+ */
+public class TileStripCache {
+    
+    // o tamanho em bits da faixa, em tiles
+    // Math.pow( 2, STRIP_WIDTH_BITS ) == STRIP_WIDTH
+    private static final int STRIP_WIDTH_BITS = 4;
+    
+    /**
+     * Largura de uma faixa, em número de pedaços. Um chunk do TileMap
+     * contém um número inteiro de faixas.
+     */
+    public static final int STRIP_WIDTH = 1 << STRIP_WIDTH_BITS;
+    
+    // quantidade máxima de faixas guardadas
+    private static final int MAX_STRIPS = 6;
+    
+    private Strip[] strips;
+    private TileMap map;
+    private long useCounter;
+    
+    
+    /**
+     * Cria um novo TileStripCache vazio.
+     */
+    public TileStripCache() {
+        strips = new Strip[ MAX_STRIPS ];
+        for ( int i = 0; i < strips.length; i++ ) {
+            strips[ i ] = new Strip();
+        }
+    }
+    
+    
+    /**
+     * Desenha os pedaços das colunas especificadas do TileMap usando as
+     * faixas guardadas, criando ou redesenhando as que forem necessárias.
+     */
+    public void draw( Graphics2D g, TileMap map, int firstTileX, int lastTileX,
+            int offsetX, int offsetY ) {
+        
+        // descarta as faixas de outro mapa
+        if ( this.map != map ) {
+            flush();
+            this.map = map;
+        }
+        
+        int firstStrip = Math.max( firstTileX, 0 ) >> STRIP_WIDTH_BITS;
+        int lastStrip = Math.min( lastTileX, map.getWidth() - 1 ) >>
+                STRIP_WIDTH_BITS;
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        
+        for ( int index = firstStrip; index <= lastStrip; index++ ) {
+            
+            int chunk = TileMap.tilesToChunks( index << STRIP_WIDTH_BITS );
+            if ( !map.isChunkLoaded( chunk ) ) {
+                continue;
+            }
+            
+            Strip strip = getStrip( index, map.getChunkVersion( chunk ) );
+            int x = TileMapRenderer.tilesToPixels(
+                    index << STRIP_WIDTH_BITS ) + offsetX;
+            strip.draw( g, gc, map, x, offsetY );
+            
+        }
+        
+    }
+    
+    
+    /**
+     * Verifica se vale a pena usar as faixas para desenhar no destino
+     * especificado. Quando o destino é uma imagem, como na execução sem 
+     * tela, as cópias são feitas por software e copiar faixas inteiras é 
+     * mais lento do que desenhar somente os pedaços não vazios.
+     */
+    public static boolean isSupported( Graphics2D g ) {
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        return gc != null && 
+                gc.getDevice().getType() != GraphicsDevice.TYPE_IMAGE_BUFFER;
+    }
+    
+    
+    /**
+     * Descarta todas as faixas guardadas.
+     */
+    public void flush() {
+        for ( Strip strip : strips ) {
+            strip.flush();
+            strip.index = -1;
+        }
+        map = null;
+    }
+    
+    
+    /**
+     * Obtém a faixa do índice especificado. Se a faixa não estiver guardada,
+     * a faixa usada menos recentemente é reaproveitada para ela.
+     */
+    private Strip getStrip( int index, int version ) {
+        
+        Strip leastRecent = strips[ 0 ];
+        
+        for ( Strip strip : strips ) {
+            if ( strip.index == index ) {
+                leastRecent = strip;
+                break;
+            }
+            if ( strip.lastUse < leastRecent.lastUse ) {
+                leastRecent = strip;
+            }
+        }
+        
+        Strip strip = leastRecent;
+        if ( strip.index != index || strip.version != version ) {
+            strip.index = index;
+            strip.version = version;
+            strip.dirty = true;
+        }
+        strip.lastUse = ++useCounter;
+        
+        return strip;
+        
+    }
+    
+    
+    /**
+     * Classe interna privada que modela uma faixa pré-desenhada.
+     */
+    private static class Strip {
+        
+        int index = -1;
+        int version;
+        long lastUse;
+        boolean dirty;
+        Image image;
+        
+        /**
+         * Desenha a faixa, validando a imagem e redesenhando seu conteúdo
+         * quando necessário.
+         */
+        void draw( Graphics2D g, GraphicsConfiguration gc, TileMap map,
+                int x, int y ) {
+            
+            int width = TileMapRenderer.tilesToPixels( STRIP_WIDTH );
+            int height = TileMapRenderer.tilesToPixels( map.getHeight() );
+            
+            if ( image == null || image.getHeight( null ) != height ) {
+                flush();
+                image = createImage( gc, width, height );
+                dirty = true;
+            }
+            
+            if ( !( image instanceof VolatileImage ) ) {
+                if ( dirty ) {
+                    render( map );
+                }
+                g.drawImage( image, x, y, null );
+                return;
+            }
+            
+            VolatileImage volatileImage = ( VolatileImage ) image;
+            do {
+                
+                int status = volatileImage.validate( gc );
+                if ( status == VolatileImage.IMAGE_INCOMPATIBLE ) {
+                    volatileImage.flush();
+                    volatileImage = gc.createCompatibleVolatileImage(
+                            width, height, Transparency.BITMASK );
+                    image = volatileImage;
+                    dirty = true;
+                } else if ( status == VolatileImage.IMAGE_RESTORED ) {
+                    dirty = true;
+                }
+                
+                if ( dirty ) {
+                    render( map );
+                }
+                g.drawImage( volatileImage, x, y, null );
+                
+            } while ( volatileImage.contentsLost() );
+            
+        }
+        
+        /**
+         * Desenha os pedaços da faixa na imagem.
+         */
+        void render( TileMap map ) {
+            
+            Graphics2D g = ( Graphics2D ) image.getGraphics();
+            
+            // limpa a imagem, deixando-a transparente
+            g.setComposite( AlphaComposite.Clear );
+            g.fillRect( 0, 0, image.getWidth( null ), image.getHeight( null ) );
+            g.setComposite( AlphaComposite.SrcOver );
+            
+            int firstTileX = index << STRIP_WIDTH_BITS;
+            for ( int y = 0; y < map.getHeight(); y++ ) {
+                for ( int x = 0; x < STRIP_WIDTH; x++ ) {
+                    int tile = map.getTileId( firstTileX + x, y );
+                    if ( tile != TileMap.EMPTY_TILE ) {
+                        map.drawTile( g, tile,
+                                TileMapRenderer.tilesToPixels( x ),
+                                TileMapRenderer.tilesToPixels( y ) );
+                    }
+                }
+            }
+            
+            g.dispose();
+            dirty = false;
+            
+        }
+        
+        /**
+         * Libera a imagem da faixa.
+         */
+        void flush() {
+            if ( image != null ) {
+                image.flush();
+                image = null;
+            }
+        }
+        
+        /**
+         * Cria a imagem de uma faixa: uma VolatileImage se ela for acelerada
+         * ou uma BufferedImage compatível com o destino caso contrário.
+         */
+        static Image createImage( GraphicsConfiguration gc,
+                int width, int height ) {
+            
+            VolatileImage image = gc.createCompatibleVolatileImage(
+                    width, height, Transparency.BITMASK );
+            if ( image.getCapabilities().isAccelerated() ) {
+                return image;
+            }
+            image.flush();
+            
+            return gc.createCompatibleImage(
+                    width, height, Transparency.BITMASK );
+            
+        }
+        
+    }
+    
+}